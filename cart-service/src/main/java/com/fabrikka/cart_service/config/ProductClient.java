@@ -0,0 +1,17 @@
+package com.fabrikka.cart_service.config;
+
+import com.fabrikka.common.ProductDto;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
+import java.util.UUID;
+
+@FeignClient(name = "PRODUCT-SERVICE")
+public interface ProductClient {
+
+    @PostMapping("/products/batch")
+    ResponseEntity<List<ProductDto>> getProductsByIds(@RequestBody List<UUID> productIds);
+}
@@ -1,6 +1,7 @@
 package com.fabrikka.cart_service.controller;
 
 
+import com.fabrikka.cart_service.dto.CartDeltaDto;
 import com.fabrikka.cart_service.service.CartService;
 import com.fabrikka.common.AddItemRequest;
 import com.fabrikka.common.CartDto;
@@ -13,6 +14,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -46,8 +48,25 @@ public class CartController {
             @ApiResponse(responseCode = "404", description = "Cart not found for user",
             content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
     })
-    public ResponseEntity<CartDto> getCart(@PathVariable Long userId) {
-        CartDto cartDto = cartService.getCartByUserId(userId);
+    public ResponseEntity<CartDto> getCart(@PathVariable Long userId,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CartService.VersionedCart versionedCart = cartService.getVersionedCart(userId);
+        String eTag = eTag(versionedCart.version());
+        if (eTag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag).body(versionedCart.cart());
+    }
+
+    @GetMapping("/{userId}/hydrated")
+    @Operation(summary = "Get user's cart with product details", description = "Retrieves the cart with product details and the total price, resolved in one bulk product lookup")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Cart retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Cart not found for user",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    public ResponseEntity<CartDto> getHydratedCart(@PathVariable Long userId) {
+        CartDto cartDto = cartService.getHydratedCart(userId);
         return ResponseEntity.status(HttpStatus.OK).body(cartDto);
     }
 
@@ -86,4 +105,78 @@ public class CartController {
         CartDto updatedCart = cartService.clearCart(userId);
         return ResponseEntity.status(HttpStatus.OK).body(updatedCart);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/{userId}/items")
+    @Operation(summary = "Add quantity to an item", description = "Adds to the product's quantity and returns only the changed line and the cart version")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Item added to cart successfully"),
+            @ApiResponse(responseCode = "412", description = "Cart was modified since the version given in If-Match",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    public ResponseEntity<CartDeltaDto> addItemDelta(@PathVariable Long userId, @RequestBody AddItemRequest request,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        CartDeltaDto delta = cartService.addItem(userId, request.getProductId(), request.getQuantity(), version(ifMatch));
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag(delta.getVersion())).body(delta);
+    }
+
+    @PutMapping("/{userId}/items/{productId}")
+    @Operation(summary = "Set item quantity", description = "Sets the product's quantity, adding or removing the line as needed, and returns only the changed line and the cart version")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Item quantity set successfully"),
+            @ApiResponse(responseCode = "412", description = "Cart was modified since the version given in If-Match",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    public ResponseEntity<CartDeltaDto> setItemQuantity(@PathVariable Long userId, @PathVariable UUID productId,
+                                                        @RequestParam Integer quantity,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        CartDeltaDto delta = cartService.setItemQuantity(userId, productId, quantity, version(ifMatch));
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag(delta.getVersion())).body(delta);
+    }
+
+    @DeleteMapping("/{userId}/items/{productId}")
+    @Operation(summary = "Delete item", description = "Removes the product's line and returns the cart version")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Item removed from cart successfully"),
+            @ApiResponse(responseCode = "404", description = "Cart not found for user",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "412", description = "Cart was modified since the version given in If-Match",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    public ResponseEntity<CartDeltaDto> deleteItem(@PathVariable Long userId, @PathVariable UUID productId,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        CartDeltaDto delta = cartService.deleteItem(userId, productId, version(ifMatch));
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag(delta.getVersion())).body(delta);
+    }
+
+    @DeleteMapping("/{userId}/items")
+    @Operation(summary = "Delete all items", description = "Empties the cart and returns the cart version")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Cart cleared successfully"),
+            @ApiResponse(responseCode = "404", description = "Cart not found for user",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "412", description = "Cart was modified since the version given in If-Match",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    public ResponseEntity<CartDeltaDto> deleteAllItems(@PathVariable Long userId,
+                                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        CartDeltaDto delta = cartService.deleteAllItems(userId, version(ifMatch));
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag(delta.getVersion())).body(delta);
+    }
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Accepts "3", W/"3" or a bare 3; absent or unparsable means the change is unconditional
+    private static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String value = ifMatch.trim().replaceFirst("^W/", "").replace("\"", "");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.fabrikka.cart_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Result of a single cart mutation: the line that changed and the cart's new version, so a client
+ * can patch its copy of the cart instead of fetching it again. A quantity of 0 means the line was
+ * removed; a null product ID means the whole cart was cleared.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class CartDeltaDto {
+
+    private UUID cartId;
+
+    private long version;
+
+    private UUID productId;
+
+    private UUID itemId;
+
+    private int quantity;
+
+    private int itemCount;
+}
@@ -27,6 +27,10 @@ public class Cart {
     @Column(unique = true, nullable = false)
     private Long userId;
 
+    // Bumped on every change; clients send it back in If-Match so concurrent tabs cannot overwrite each other
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     private List<CartItem> items = new ArrayList<>();
 
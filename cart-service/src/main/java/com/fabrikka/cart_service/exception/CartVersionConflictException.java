@@ -0,0 +1,12 @@
+package com.fabrikka.cart_service.exception;
+
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = org.springframework.http.HttpStatus.PRECONDITION_FAILED)
+public class CartVersionConflictException extends RuntimeException {
+
+    public CartVersionConflictException(Long userId, long expectedVersion, long currentVersion) {
+        super(String.format("Cart for userId '%s' is at version %d, not %d; refetch the cart and retry",
+                userId, currentVersion, expectedVersion));
+    }
+}
@@ -57,4 +57,14 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponseDTO, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(CartVersionConflictException.class)
+    public ResponseEntity<ErrorResponseDto> handleCartVersionConflictException(CartVersionConflictException exception, WebRequest webRequest) {
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto();
+        errorResponseDTO.setApiPath(webRequest.getDescription(false));
+        errorResponseDTO.setErrorCode(String.valueOf(HttpStatus.PRECONDITION_FAILED));
+        errorResponseDTO.setErrorMessage(exception.getMessage());
+        errorResponseDTO.setErrorTime(LocalDateTime.now());
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.PRECONDITION_FAILED);
+    }
+
 }
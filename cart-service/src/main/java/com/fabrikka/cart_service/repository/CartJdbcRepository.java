@@ -0,0 +1,104 @@
+package com.fabrikka.cart_service.repository;
+
+import com.fabrikka.cart_service.service.store.CartWrite;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain JDBC write path for the write-behind cart store.
+ * <p>
+ * A flush applies only the lines that changed in each cart: item upserts (an UPDATE followed by an
+ * INSERT of the rows that did not exist), item deletes and whole-cart clears. Each kind of statement
+ * is sent as one JDBC batch for all carts in the flush. Callers run this inside a transaction.
+ * <p>
+ * The version is compare-and-set: a cart whose stored version is no longer the write's base version
+ * was changed elsewhere (another instance, or a write racing a reload). Its changes are not applied and
+ * it is returned as a conflict.
+ */
+@Repository
+public class CartJdbcRepository {
+
+    // user_id is unique too, so a cart another instance created for the same user must not be inserted twice
+    private static final String INSERT_CART_IF_MISSING =
+            "INSERT INTO cart (id, user_id, version) SELECT ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM cart WHERE id = ? OR user_id = ?)";
+
+    // Carts stored before the version column existed have NULL there and are loaded as version 0
+    private static final String UPDATE_VERSION = "UPDATE cart SET version = ? WHERE id = ? AND COALESCE(version, 0) = ?";
+
+    private static final String DELETE_ALL_ITEMS = "DELETE FROM cart_item WHERE cart_id = ?";
+
+    private static final String DELETE_ITEM = "DELETE FROM cart_item WHERE cart_id = ? AND product_id = ?";
+
+    private static final String UPDATE_ITEM = "UPDATE cart_item SET quantity = ? WHERE cart_id = ? AND product_id = ?";
+
+    private static final String INSERT_ITEM_IF_MISSING =
+            "INSERT INTO cart_item (id, cart_id, product_id, quantity) SELECT ?, ?, ?, ? "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM cart_item WHERE cart_id = ? AND product_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CartJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Applies the writes and returns the ones that conflicted; those are left untouched in the database.
+     */
+    public List<CartWrite> applyAll(List<CartWrite> writes) {
+        List<Object[]> createdCarts = new ArrayList<>();
+        List<Object[]> versions = new ArrayList<>();
+        for (CartWrite write : writes) {
+            if (write.created()) {
+                createdCarts.add(new Object[]{write.cartId(), write.userId(), write.baseVersion(), write.cartId(), write.userId()});
+            }
+            versions.add(new Object[]{write.version(), write.cartId(), write.baseVersion()});
+        }
+        batch(INSERT_CART_IF_MISSING, createdCarts);
+        int[] updated = batch(UPDATE_VERSION, versions);
+
+        List<CartWrite> conflicts = new ArrayList<>();
+        List<Object[]> clears = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < writes.size(); i++) {
+            CartWrite write = writes.get(i);
+            // Some drivers report batched rows as SUCCESS_NO_INFO; only a definite 0 is a conflict
+            if (updated[i] == 0) {
+                conflicts.add(write);
+                continue;
+            }
+            if (write.cleared()) {
+                clears.add(new Object[]{write.cartId()});
+            }
+            write.deletes().forEach(productId -> deletes.add(new Object[]{write.cartId(), productId}));
+            write.upserts().forEach(line -> {
+                updates.add(new Object[]{line.quantity(), write.cartId(), line.productId()});
+                inserts.add(new Object[]{line.itemId(), write.cartId(), line.productId(), line.quantity(),
+                        write.cartId(), line.productId()});
+            });
+        }
+        batch(DELETE_ALL_ITEMS, clears);
+        batch(DELETE_ITEM, deletes);
+        batch(UPDATE_ITEM, updates);
+        batch(INSERT_ITEM_IF_MISSING, inserts);
+        return conflicts;
+    }
+
+    private int[] batch(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        int[] counts = jdbcTemplate.batchUpdate(sql, rows);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                counts[i] = 1;
+            }
+        }
+        return counts;
+    }
+}
@@ -2,6 +2,8 @@ package com.fabrikka.cart_service.service;
 
 import com.fabrikka.cart_service.entity.Cart;
 import com.fabrikka.cart_service.entity.CartItem;
+import com.fabrikka.cart_service.service.store.CartLine;
+import com.fabrikka.cart_service.service.store.CartSnapshot;
 import com.fabrikka.common.CartDto;
 import com.fabrikka.common.CartItemDto;
 import org.springframework.stereotype.Component;
@@ -21,6 +23,14 @@ public class CartMapper {
         return cartDto;
     }
 
+    public CartDto toDto(CartSnapshot cart) {
+        CartDto cartDto = new CartDto();
+        cartDto.setId(cart.cartId());
+        cartDto.setUserId(cart.userId());
+        cartDto.setItems(cart.lines().stream().map(this::toItemDto).collect(Collectors.toList()));
+        return cartDto;
+    }
+
     public Cart toEntity(CartDto cartDto) {
         Cart cart = new Cart();
         cart.setId(cartDto.getId());
@@ -51,6 +61,14 @@ public class CartMapper {
         return itemDto;
     }
 
+    private CartItemDto toItemDto(CartLine line) {
+        CartItemDto itemDto = new CartItemDto();
+        itemDto.setId(line.itemId());
+        itemDto.setProductId(line.productId());
+        itemDto.setQuantity(line.quantity());
+        return itemDto;
+    }
+
     private CartItem toItemEntity(CartItemDto itemDto) {
         CartItem item = new CartItem();
         item.setId(itemDto.getId());
@@ -1,108 +1,168 @@
 package com.fabrikka.cart_service.service;
 
-import com.fabrikka.cart_service.entity.Cart;
-import com.fabrikka.cart_service.entity.CartItem;
+import com.fabrikka.cart_service.config.ProductClient;
+import com.fabrikka.cart_service.dto.CartDeltaDto;
 import com.fabrikka.cart_service.exception.ResourceNotFoundException;
-import com.fabrikka.cart_service.repository.CartItemRepository;
-import com.fabrikka.cart_service.repository.CartRepository;
+import com.fabrikka.cart_service.service.store.CartLine;
+import com.fabrikka.cart_service.service.store.CartSnapshot;
+import com.fabrikka.cart_service.service.store.CartStore;
 import com.fabrikka.common.CartDto;
 import com.fabrikka.common.CartItemDto;
+import com.fabrikka.common.ProductDto;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.Optional;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-
+import java.util.stream.Collectors;
+
+/**
+ * Cart operations on top of the {@link CartStore}. Reads and writes are served from the store's
+ * memory tier; the store persists changes to the database in the background.
+ * <p>
+ * The item operations return a {@link CartDeltaDto} describing only the line that changed. They take
+ * an optional expected version, which makes the change conditional on nobody else having modified the
+ * cart in the meantime.
+ */
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class CartService {
 
-    private final CartRepository cartRepository;
-    private final CartItemRepository cartItemRepository;
+    private final CartStore cartStore;
     private final CartMapper cartMapper;
+    private final ProductClient productClient;
 
     Logger logger = LoggerFactory.getLogger(CartService.class);
 
+    // Must not exceed product-service's own product.batch.max-size, or the lookup is rejected
+    @Value("${product.batch.max-size:200}")
+    int productBatchMaxSize;
+
+    public record VersionedCart(CartDto cart, long version) {
+    }
+
     public CartDto createCart(Long userId) {
-        Cart cart = Cart.builder().userId(userId).build();
-        Cart savedCart = cartRepository.save(cart);
-        return cartMapper.toDto(savedCart);
+        return cartMapper.toDto(cartStore.getOrCreate(userId));
     }
 
     public CartDto getCartByUserId(Long userId) {
-        return cartRepository.findByUserId(userId)
-                .map(cartMapper::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "userId", userId.toString()));
+        return getVersionedCart(userId).cart();
     }
 
-    public CartDto addItemToCart(Long userId, UUID productId, Integer quantity) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseGet(() -> cartMapper.toEntity(createCart(userId)));
-
-        // Check if item for this product already exists. If so, update quantity.
-        Optional<CartItem> existingItemOpt = cart.getItems().stream()
-                .filter(i -> i.getProductId().equals(productId))
-                .findFirst();
-
-        if (existingItemOpt.isPresent()) {
-            CartItem existingItem = existingItemOpt.get();
-            existingItem.setQuantity(existingItem.getQuantity() + quantity);
-        } else {
-            // Otherwise, add a new item using the helper method.
-            CartItem newItem = CartItem.builder()
-                    .productId(productId)
-                    .quantity(quantity)
-                    .build();
-            cart.addItem(newItem);
+    public VersionedCart getVersionedCart(Long userId) {
+        CartSnapshot cart = getCart(userId);
+        return new VersionedCart(cartMapper.toDto(cart), cart.version());
+    }
+
+    /**
+     * Returns the cart with product details attached to every line and the total computed as
+     * price times quantity, resolving the products with one bulk call to product-service per
+     * {@code product.batch.max-size} products. Lines whose product no longer exists (no product) or
+     * has no price are kept so the user can see and remove them, but are left out of the total; they
+     * cannot be ordered.
+     */
+    public CartDto getHydratedCart(Long userId) {
+        CartDto cart = getCartByUserId(userId);
+        if (cart.getItems().isEmpty()) {
+            cart.setTotalPrice(BigDecimal.ZERO);
+            return cart;
+        }
+        List<UUID> productIds = cart.getItems().stream().map(CartItemDto::getProductId).distinct().collect(Collectors.toList());
+        Map<UUID, ProductDto> productsById = new HashMap<>();
+        for (int from = 0; from < productIds.size(); from += productBatchMaxSize) {
+            List<UUID> chunk = productIds.subList(from, Math.min(productIds.size(), from + productBatchMaxSize));
+            List<ProductDto> products = productClient.getProductsByIds(chunk).getBody();
+            if (products != null) {
+                products.forEach(product -> productsById.putIfAbsent(product.getProductId(), product));
+            }
         }
 
-        Cart updatedCart = cartRepository.save(cart);
-        return cartMapper.toDto(updatedCart);
+        BigDecimal totalPrice = BigDecimal.ZERO;
+        for (CartItemDto item : cart.getItems()) {
+            ProductDto product = productsById.get(item.getProductId());
+            if (product == null) {
+                logger.warn("Product {} in cart of user {} no longer exists", item.getProductId(), userId);
+                continue;
+            }
+            item.setProduct(product);
+            if (product.getPrice() == null) {
+                logger.warn("Product {} in cart of user {} has no price and is unavailable", item.getProductId(), userId);
+                continue;
+            }
+            totalPrice = totalPrice.add(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        cart.setTotalPrice(totalPrice);
+        return cart;
+    }
+
+    public CartDto addItemToCart(Long userId, UUID productId, Integer quantity) {
+        // Adds to the existing line for this product, or creates the line (and the cart) if needed
+        return cartMapper.toDto(cartStore.add(userId, productId, quantity, null));
     }
 
     public CartDto updateItemQuantity(Long userId, Long itemId, Integer newQuantity) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "userId", userId.toString()));
+        CartLine item = findLine(userId, itemId);
+        return cartMapper.toDto(cartStore.setQuantity(userId, item.productId(), newQuantity, null));
+    }
 
-        CartItem item = cart.getItems()
-                .stream()
-                .filter(i -> i.getId().equals(itemId))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", itemId.toString()));
+    public CartDto removeItemFromCart(Long userId, UUID itemId) {
+        CartLine item = findLine(userId, itemId);
+        return cartMapper.toDto(cartStore.remove(userId, item.productId(), null));
+    }
 
-        item.setQuantity(newQuantity);
-        Cart updatedCart = cartRepository.save(cart);
-        return cartMapper.toDto(updatedCart);
+    public CartDto clearCart(Long userId) {
+        getCart(userId);
+        return cartMapper.toDto(cartStore.clear(userId, null));
     }
 
-    public CartDto removeItemFromCart(Long userId, UUID itemId) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "userId", userId.toString()));
+    public CartDeltaDto addItem(Long userId, UUID productId, int quantity, Long expectedVersion) {
+        return toDelta(cartStore.add(userId, productId, quantity, expectedVersion), productId);
+    }
 
-        CartItem cartItemToRemove = cart.getItems()
-                .stream()
-                .filter(i -> i.getId().equals(itemId))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", itemId.toString()));
+    /**
+     * Sets the product's quantity in the cart, adding the line if needed; a quantity of 0 or less removes it.
+     */
+    public CartDeltaDto setItemQuantity(Long userId, UUID productId, int quantity, Long expectedVersion) {
+        if (quantity <= 0) {
+            return deleteItem(userId, productId, expectedVersion);
+        }
+        return toDelta(cartStore.setQuantity(userId, productId, quantity, expectedVersion), productId);
+    }
 
-        // Use the helper method to ensure the relationship is correctly managed
-        cart.removeItem(cartItemToRemove);
-        Cart updatedCart = cartRepository.save(cart);
-        return cartMapper.toDto(updatedCart);
+    public CartDeltaDto deleteItem(Long userId, UUID productId, Long expectedVersion) {
+        getCart(userId);
+        return toDelta(cartStore.remove(userId, productId, expectedVersion), productId);
     }
 
-    public CartDto clearCart(Long userId) {
-        Cart cart = cartRepository.findByUserId(userId)
+    public CartDeltaDto deleteAllItems(Long userId, Long expectedVersion) {
+        getCart(userId);
+        return toDelta(cartStore.clear(userId, expectedVersion), null);
+    }
+
+    private CartDeltaDto toDelta(CartSnapshot cart, UUID productId) {
+        CartLine line = productId != null ? cart.line(productId).orElse(null) : null;
+        return new CartDeltaDto(cart.cartId(), cart.version(), productId,
+                line != null ? line.itemId() : null,
+                line != null ? line.quantity() : 0,
+                cart.lines().size());
+    }
+
+    private CartSnapshot getCart(Long userId) {
+        return cartStore.find(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart", "userId", userId.toString()));
+    }
 
-        // Use helper method on a copy of the list to avoid ConcurrentModificationException
-        new ArrayList<>(cart.getItems()).forEach(cart::removeItem);
-        Cart updatedCart = cartRepository.save(cart);
-        return cartMapper.toDto(updatedCart);
+    private CartLine findLine(Long userId, Object itemId) {
+        return getCart(userId).lines()
+                .stream()
+                .filter(i -> i.itemId().equals(itemId))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", itemId.toString()));
     }
-}
\ No newline at end of file
+}
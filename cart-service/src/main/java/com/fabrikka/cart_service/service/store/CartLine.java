@@ -0,0 +1,9 @@
+package com.fabrikka.cart_service.service.store;
+
+import java.util.UUID;
+
+/**
+ * One line of a cart as held by the {@link CartStore}; the item ID is kept stable across flushes.
+ */
+public record CartLine(UUID itemId, UUID productId, int quantity) {
+}
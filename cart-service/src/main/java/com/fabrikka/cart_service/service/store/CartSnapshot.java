@@ -0,0 +1,16 @@
+package com.fabrikka.cart_service.service.store;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Immutable copy of a cart taken from the {@link CartStore}, safe to read after the cart changes.
+ * The version goes up by one with every mutation.
+ */
+public record CartSnapshot(UUID cartId, Long userId, long version, List<CartLine> lines) {
+
+    public Optional<CartLine> line(UUID productId) {
+        return lines.stream().filter(line -> line.productId().equals(productId)).findFirst();
+    }
+}
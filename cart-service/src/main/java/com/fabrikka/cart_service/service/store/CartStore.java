@@ -0,0 +1,35 @@
+package com.fabrikka.cart_service.service.store;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Storage for carts, keyed by user. Implementations decide when and how changes reach the database;
+ * every method returns the cart as it is after the call.
+ * <p>
+ * Mutations take an optional expected version. When it is given and does not match the cart's current
+ * version, the mutation is rejected with {@code CartVersionConflictException}.
+ */
+public interface CartStore {
+
+    Optional<CartSnapshot> find(Long userId);
+
+    /**
+     * Returns the user's cart, creating an empty one if the user has none.
+     */
+    CartSnapshot getOrCreate(Long userId);
+
+    /**
+     * Adds the quantity to the product's line, creating the line (and the cart) if needed.
+     */
+    CartSnapshot add(Long userId, UUID productId, int quantity, Long expectedVersion);
+
+    /**
+     * Sets the product's quantity, creating the line (and the cart) if needed.
+     */
+    CartSnapshot setQuantity(Long userId, UUID productId, int quantity, Long expectedVersion);
+
+    CartSnapshot remove(Long userId, UUID productId, Long expectedVersion);
+
+    CartSnapshot clear(Long userId, Long expectedVersion);
+}
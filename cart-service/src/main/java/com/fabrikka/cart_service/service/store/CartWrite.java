@@ -0,0 +1,13 @@
+package com.fabrikka.cart_service.service.store;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Changes to one cart accumulated since its last flush. When {@code cleared} is set, all stored
+ * items are deleted before the upserts are applied. {@code baseVersion} is the version the stored
+ * row must still have for the write to apply; {@code version} is the version it moves to.
+ */
+public record CartWrite(UUID cartId, Long userId, long baseVersion, long version, boolean created, boolean cleared,
+                        List<CartLine> upserts, List<UUID> deletes) {
+}
@@ -0,0 +1,470 @@
+package com.fabrikka.cart_service.service.store;
+
+import com.fabrikka.cart_service.entity.Cart;
+import com.fabrikka.cart_service.exception.CartVersionConflictException;
+import com.fabrikka.cart_service.repository.CartJdbcRepository;
+import com.fabrikka.cart_service.repository.CartRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * {@link CartStore} that serves carts from memory and writes them to the database behind the request.
+ * <p>
+ * Each user's cart is loaded once into a session entry holding a map from product ID to line.
+ * Mutations only change that map, bump the cart's version and record which products changed.
+ * Every {@code cart.store.flush-interval-ms} (the durability window) the changed lines of dirty carts
+ * are written in batches of {@code cart.store.flush-batch-size}, so any number of clicks on one cart
+ * within a window costs a single write per changed line. Remaining changes are flushed on shutdown.
+ * Clean carts idle for {@code cart.store.idle-seconds} are dropped from memory.
+ * <p>
+ * If a batch fails, its carts are written one by one, so one bad cart cannot hold back the others.
+ * A cart that fails on its own is retried with exponential backoff. After {@code cart.store.max-write-attempts}
+ * failures it is parked: logged, counted in {@code cart.store.parked}, kept in memory and not retried until
+ * the cart changes again.
+ * <p>
+ * Writes are version-checked against the stored cart. If another instance or a racing reload changed it
+ * since this one loaded it, the write is dropped as a conflict: the entry is evicted so the next request
+ * reloads the stored cart, and the user's next conditional mutation fails with
+ * {@code CartVersionConflictException} even if the reloaded version happens to match its If-Match.
+ * <p>
+ * The memory tier is per instance, so requests for the same user must reach the same instance
+ * (or the service must run as a single instance) for reads to see the latest writes.
+ */
+@Component
+public class WriteBehindCartStore implements CartStore {
+
+    Logger logger = LoggerFactory.getLogger(WriteBehindCartStore.class);
+
+    private final CartRepository cartRepository;
+
+    private final CartJdbcRepository cartJdbcRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int flushBatchSize;
+
+    private final long idleMillis;
+
+    private final Map<Long, SessionCart> sessions = new ConcurrentHashMap<>();
+
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private final Set<Long> parked = ConcurrentHashMap.newKeySet();
+
+    // Users whose in-memory cart lost a version conflict and who have not seen the stored cart since
+    private final Set<Long> conflicted = ConcurrentHashMap.newKeySet();
+
+    private final int maxWriteAttempts;
+
+    private final long retryBackoffMillis;
+
+    private final long maxRetryBackoffMillis;
+
+    private final Counter flushedCarts;
+
+    private final Counter failedWrites;
+
+    private final Counter conflicts;
+
+    public WriteBehindCartStore(CartRepository cartRepository,
+                                CartJdbcRepository cartJdbcRepository,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${cart.store.flush-batch-size:200}") int flushBatchSize,
+                                @Value("${cart.store.idle-seconds:1800}") long idleSeconds,
+                                @Value("${cart.store.max-write-attempts:5}") int maxWriteAttempts,
+                                @Value("${cart.store.retry-backoff-ms:1000}") long retryBackoffMillis,
+                                @Value("${cart.store.max-retry-backoff-ms:60000}") long maxRetryBackoffMillis) {
+        this.cartRepository = cartRepository;
+        this.cartJdbcRepository = cartJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.flushBatchSize = flushBatchSize;
+        this.idleMillis = idleSeconds * 1000;
+        this.maxWriteAttempts = maxWriteAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.maxRetryBackoffMillis = maxRetryBackoffMillis;
+        this.flushedCarts = Counter.builder("cart.store.flushed")
+                .description("Carts written to the database by the write-behind flush")
+                .register(meterRegistry);
+        this.failedWrites = Counter.builder("cart.store.write.failures")
+                .description("Failed attempts to write a single cart")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("cart.store.conflicts")
+                .description("Cart writes rejected because the stored cart was changed elsewhere")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.parked", parked, Set::size)
+                .description("Carts whose writes kept failing and are no longer retried until they change")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.dirty", dirty, Set::size)
+                .description("Carts changed in memory and not yet written to the database")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.sessions", sessions, Map::size)
+                .description("Carts held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<CartSnapshot> find(Long userId) {
+        SessionCart session = session(userId, false);
+        if (session == null) {
+            return Optional.empty();
+        }
+        synchronized (session) {
+            session.touch();
+            conflicted.remove(userId);
+            return Optional.of(session.snapshot());
+        }
+    }
+
+    @Override
+    public CartSnapshot getOrCreate(Long userId) {
+        while (true) {
+            SessionCart session = session(userId, true);
+            synchronized (session) {
+                if (session.evicted) {
+                    continue;
+                }
+                session.touch();
+                conflicted.remove(userId);
+                if (session.created) {
+                    dirty.add(userId);
+                }
+                return session.snapshot();
+            }
+        }
+    }
+
+    @Override
+    public CartSnapshot add(Long userId, UUID productId, int quantity, Long expectedVersion) {
+        return mutate(userId, expectedVersion, session -> {
+            CartLine line = session.lines.get(productId);
+            session.put(line == null
+                    ? new CartLine(UUID.randomUUID(), productId, quantity)
+                    : new CartLine(line.itemId(), productId, line.quantity() + quantity));
+        });
+    }
+
+    @Override
+    public CartSnapshot setQuantity(Long userId, UUID productId, int quantity, Long expectedVersion) {
+        return mutate(userId, expectedVersion, session -> {
+            CartLine line = session.lines.get(productId);
+            session.put(new CartLine(line != null ? line.itemId() : UUID.randomUUID(), productId, quantity));
+        });
+    }
+
+    @Override
+    public CartSnapshot remove(Long userId, UUID productId, Long expectedVersion) {
+        return mutate(userId, expectedVersion, session -> session.remove(productId));
+    }
+
+    @Override
+    public CartSnapshot clear(Long userId, Long expectedVersion) {
+        return mutate(userId, expectedVersion, SessionCart::clear);
+    }
+
+    /**
+     * Writes every dirty cart to the database. Carts changed while the flush runs stay dirty for the next one,
+     * and carts waiting out a retry backoff are skipped.
+     */
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:1000}")
+    public void flush() {
+        flush(false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Last chance to persist, so backoffs are ignored
+        flush(true);
+    }
+
+    private synchronized void flush(boolean ignoreBackoff) {
+        long now = System.currentTimeMillis();
+        List<CartWrite> batch = new ArrayList<>(flushBatchSize);
+        for (Long userId : dirty) {
+            SessionCart session = sessions.get(userId);
+            if (session == null) {
+                dirty.remove(userId);
+                continue;
+            }
+            synchronized (session) {
+                if (!ignoreBackoff && session.nextAttemptAt > now) {
+                    continue;
+                }
+                dirty.remove(userId);
+                batch.add(session.drain());
+            }
+            if (batch.size() >= flushBatchSize) {
+                write(batch);
+                batch = new ArrayList<>(flushBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+        evictIdle();
+    }
+
+    private void write(List<CartWrite> batch) {
+        try {
+            applied(batch, transactionTemplate.execute(status -> cartJdbcRepository.applyAll(batch)));
+            return;
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                failed(batch.get(0), e);
+                return;
+            }
+            logger.warn("Could not flush {} carts together, writing them one by one, exception:{} ", batch.size(), e.getMessage());
+        }
+        for (CartWrite write : batch) {
+            try {
+                applied(List.of(write), transactionTemplate.execute(status -> cartJdbcRepository.applyAll(List.of(write))));
+            } catch (Exception e) {
+                failed(write, e);
+            }
+        }
+    }
+
+    private void applied(List<CartWrite> batch, List<CartWrite> conflicting) {
+        for (CartWrite write : batch) {
+            if (conflicting.contains(write)) {
+                conflicted(write);
+            } else {
+                written(write);
+            }
+        }
+    }
+
+    private void written(CartWrite write) {
+        flushedCarts.increment();
+        SessionCart session = sessions.get(write.userId());
+        if (session != null) {
+            synchronized (session) {
+                session.persistedVersion = write.version();
+                session.failures = 0;
+                session.nextAttemptAt = 0;
+            }
+        }
+    }
+
+    /**
+     * Drops the in-memory cart whose write lost to a change made elsewhere, so the stored cart is reloaded.
+     */
+    private void conflicted(CartWrite write) {
+        conflicts.increment();
+        logger.warn("Cart {} of user {} was changed elsewhere since version {}; discarding in-memory changes up to version {}",
+                write.cartId(), write.userId(), write.baseVersion(), write.version());
+        SessionCart session = sessions.get(write.userId());
+        if (session != null) {
+            synchronized (session) {
+                session.evicted = true;
+                sessions.remove(write.userId(), session);
+                dirty.remove(write.userId());
+                parked.remove(write.userId());
+                conflicted.add(write.userId());
+            }
+        }
+    }
+
+    /**
+     * Puts back the changes of a failed cart write and schedules a retry, or parks the cart once it has
+     * failed {@code maxWriteAttempts} times in a row.
+     */
+    private void failed(CartWrite write, Exception e) {
+        failedWrites.increment();
+        SessionCart session = sessions.get(write.userId());
+        if (session == null) {
+            logger.error("Could not write cart {} of user {}, exception:{} ", write.cartId(), write.userId(), e.getMessage());
+            return;
+        }
+        int failures;
+        synchronized (session) {
+            session.restore(write);
+            failures = ++session.failures;
+            long backoff = retryBackoffMillis << Math.min(failures - 1, 30);
+            session.nextAttemptAt = System.currentTimeMillis() + Math.min(maxRetryBackoffMillis, backoff);
+        }
+        if (failures >= maxWriteAttempts) {
+            parked.add(write.userId());
+            logger.error("Parking cart {} of user {} after {} failed writes; it is retried when it changes again, exception:{} ",
+                    write.cartId(), write.userId(), failures, e.getMessage());
+        } else {
+            dirty.add(write.userId());
+            logger.warn("Could not write cart {} of user {}, attempt {} of {}, exception:{} ",
+                    write.cartId(), write.userId(), failures, maxWriteAttempts, e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        long oldestAllowed = System.currentTimeMillis() - idleMillis;
+        sessions.forEach((userId, session) -> {
+            synchronized (session) {
+                // Parked carts hold unwritten changes, so they stay in memory
+                if (session.lastAccess < oldestAllowed && !dirty.contains(userId) && !parked.contains(userId)) {
+                    session.evicted = true;
+                    sessions.remove(userId, session);
+                }
+            }
+        });
+    }
+
+    private CartSnapshot mutate(Long userId, Long expectedVersion, Consumer<SessionCart> change) {
+        while (true) {
+            SessionCart session = session(userId, true);
+            synchronized (session) {
+                // Lost a race with eviction; load a fresh entry and try again
+                if (session.evicted) {
+                    continue;
+                }
+                // The client's version came from a cart that lost a conflict, whatever its number
+                boolean lostConflict = conflicted.remove(userId);
+                if (expectedVersion != null && (lostConflict || expectedVersion != session.version)) {
+                    throw new CartVersionConflictException(userId, expectedVersion, session.version);
+                }
+                change.accept(session);
+                session.version++;
+                session.touch();
+                // A parked cart gets one more attempt per change; it is parked again right away if that fails
+                parked.remove(userId);
+                dirty.add(userId);
+                return session.snapshot();
+            }
+        }
+    }
+
+    private SessionCart session(Long userId, boolean create) {
+        SessionCart session = sessions.get(userId);
+        if (session != null) {
+            return session;
+        }
+        Optional<Cart> cart = cartRepository.findByUserId(userId);
+        if (cart.isEmpty() && !create) {
+            return null;
+        }
+        SessionCart loaded = cart.map(SessionCart::from).orElseGet(() -> new SessionCart(UUID.randomUUID(), userId, 0, true));
+        SessionCart existing = sessions.putIfAbsent(userId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private static final class SessionCart {
+
+        private final UUID cartId;
+
+        private final Long userId;
+
+        // Insertion-ordered so the cart lists items in the order they were added
+        private final Map<UUID, CartLine> lines = new LinkedHashMap<>();
+
+        // Products changed since the last flush; a product absent from lines has been removed
+        private Set<UUID> changed = new HashSet<>();
+
+        private boolean cleared;
+
+        // True until the cart row has been written
+        private boolean created;
+
+        private long version;
+
+        // Version of the stored row as of the load or the last successful write
+        private long persistedVersion;
+
+        private long lastAccess = System.currentTimeMillis();
+
+        private boolean evicted;
+
+        // Consecutive failed writes, and when the next one may be attempted
+        private int failures;
+
+        private long nextAttemptAt;
+
+        SessionCart(UUID cartId, Long userId, long version, boolean created) {
+            this.cartId = cartId;
+            this.userId = userId;
+            this.version = version;
+            this.persistedVersion = version;
+            this.created = created;
+        }
+
+        static SessionCart from(Cart cart) {
+            SessionCart session = new SessionCart(cart.getId(), cart.getUserId(),
+                    cart.getVersion() != null ? cart.getVersion() : 0, false);
+            cart.getItems().forEach(item -> session.lines.put(item.getProductId(),
+                    new CartLine(item.getId(), item.getProductId(), item.getQuantity())));
+            return session;
+        }
+
+        void put(CartLine line) {
+            lines.put(line.productId(), line);
+            changed.add(line.productId());
+        }
+
+        void remove(UUID productId) {
+            if (lines.remove(productId) != null) {
+                changed.add(productId);
+            }
+        }
+
+        void clear() {
+            lines.clear();
+            changed.clear();
+            cleared = true;
+        }
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+
+        CartSnapshot snapshot() {
+            return new CartSnapshot(cartId, userId, version, List.copyOf(lines.values()));
+        }
+
+        /**
+         * Takes the changes accumulated since the last flush and resets them.
+         */
+        CartWrite drain() {
+            List<CartLine> upserts = new ArrayList<>();
+            List<UUID> deletes = new ArrayList<>();
+            changed.forEach(productId -> {
+                CartLine line = lines.get(productId);
+                if (line != null) {
+                    upserts.add(line);
+                } else {
+                    deletes.add(productId);
+                }
+            });
+            CartWrite write = new CartWrite(cartId, userId, persistedVersion, version, created, cleared, upserts, deletes);
+            changed = new HashSet<>();
+            cleared = false;
+            created = false;
+            return write;
+        }
+
+        /**
+         * Puts back the changes of a write that failed, so the next flush sends them again.
+         */
+        void restore(CartWrite write) {
+            created |= write.created();
+            cleared |= write.cleared();
+            write.upserts().forEach(line -> changed.add(line.productId()));
+            changed.addAll(write.deletes());
+        }
+    }
+}
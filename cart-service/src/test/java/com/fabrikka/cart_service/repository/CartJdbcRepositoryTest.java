@@ -0,0 +1,73 @@
+package com.fabrikka.cart_service.repository;
+
+import com.fabrikka.cart_service.service.store.CartLine;
+import com.fabrikka.cart_service.service.store.CartWrite;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartJdbcRepositoryTest {
+
+    private static final long USER_ID = 7L;
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+
+    private final CartJdbcRepository repository = new CartJdbcRepository(jdbcTemplate);
+
+    private final UUID cartId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE cart (id UUID PRIMARY KEY, user_id BIGINT NOT NULL UNIQUE, version BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE cart_item (id UUID PRIMARY KEY, cart_id UUID, product_id UUID, quantity INT)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void appliesWritesToACartStoredBeforeItHadAVersion() {
+        jdbcTemplate.update("INSERT INTO cart (id, user_id, version) VALUES (?, ?, NULL)", cartId, USER_ID);
+        UUID productId = UUID.randomUUID();
+
+        List<CartWrite> conflicts = repository.applyAll(List.of(write(0, 1, productId, 2)));
+
+        assertThat(conflicts).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM cart WHERE id = ?", Long.class, cartId)).isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForList("SELECT quantity FROM cart_item WHERE cart_id = ? AND product_id = ?",
+                Integer.class, cartId, productId)).containsExactly(2);
+    }
+
+    @Test
+    void leavesACartChangedElsewhereUntouched() {
+        jdbcTemplate.update("INSERT INTO cart (id, user_id, version) VALUES (?, ?, ?)", cartId, USER_ID, 5L);
+        CartWrite stale = write(4, 5, UUID.randomUUID(), 1);
+
+        List<CartWrite> conflicts = repository.applyAll(List.of(stale));
+
+        assertThat(conflicts).containsExactly(stale);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM cart WHERE id = ?", Long.class, cartId)).isEqualTo(5L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_item", Integer.class)).isZero();
+    }
+
+    private CartWrite write(long baseVersion, long version, UUID productId, int quantity) {
+        return new CartWrite(cartId, USER_ID, baseVersion, version, false, false,
+                List.of(new CartLine(UUID.randomUUID(), productId, quantity)), List.of());
+    }
+}
@@ -0,0 +1,147 @@
+package com.fabrikka.cart_service.service.store;
+
+import com.fabrikka.cart_service.exception.CartVersionConflictException;
+import com.fabrikka.cart_service.repository.CartJdbcRepository;
+import com.fabrikka.cart_service.repository.CartRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WriteBehindCartStoreTest {
+
+    private static final long BAD_USER = 2L;
+
+    private static final long CONFLICTING_USER = 4L;
+
+    private final CartRepository cartRepository = mock(CartRepository.class);
+
+    private final CartJdbcRepository cartJdbcRepository = mock(CartJdbcRepository.class);
+
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Every applyAll call, as the list of user IDs it was given
+    private final List<List<Long>> calls = new ArrayList<>();
+
+    private WriteBehindCartStore store;
+
+    @BeforeEach
+    void setUp() {
+        when(cartRepository.findByUserId(anyLong())).thenReturn(Optional.empty());
+        doAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+        doAnswer(invocation -> {
+            List<CartWrite> writes = invocation.getArgument(0);
+            calls.add(writes.stream().map(CartWrite::userId).toList());
+            if (writes.stream().anyMatch(write -> write.userId() == BAD_USER)) {
+                throw new IllegalStateException("duplicate key");
+            }
+            return writes.stream().filter(write -> write.userId() == CONFLICTING_USER).toList();
+        }).when(cartJdbcRepository).applyAll(anyList());
+        store = new WriteBehindCartStore(cartRepository, cartJdbcRepository, transactionTemplate, meterRegistry,
+                200, 1800, 2, 0, 0);
+    }
+
+    @Test
+    void coalescesChangesIntoOneWritePerFlush() {
+        UUID productId = UUID.randomUUID();
+        store.add(1L, productId, 1, null);
+        store.add(1L, productId, 2, null);
+        store.setQuantity(1L, productId, 5, null);
+
+        store.flush();
+        store.flush();
+
+        assertThat(calls).containsExactly(List.of(1L));
+        assertThat(meterRegistry.get("cart.store.flushed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void badCartDoesNotBlockTheRestOfItsBatchAndIsParkedAfterMaxAttempts() {
+        store.add(1L, UUID.randomUUID(), 1, null);
+        store.add(BAD_USER, UUID.randomUUID(), 1, null);
+        store.add(3L, UUID.randomUUID(), 1, null);
+
+        store.flush();
+        assertThat(calls.get(0)).containsExactlyInAnyOrder(1L, BAD_USER, 3L);
+        assertThat(calls.subList(1, calls.size())).containsExactlyInAnyOrder(List.of(1L), List.of(BAD_USER), List.of(3L));
+        assertThat(meterRegistry.get("cart.store.flushed").counter().count()).isEqualTo(2);
+
+        calls.clear();
+        store.flush();
+        assertThat(calls).containsExactly(List.of(BAD_USER));
+        assertThat(meterRegistry.get("cart.store.parked").gauge().value()).isEqualTo(1);
+
+        calls.clear();
+        store.flush();
+        assertThat(calls).isEmpty();
+        assertThat(store.find(BAD_USER)).isPresent();
+    }
+
+    @Test
+    void changingAParkedCartRetriesItOnce() {
+        UUID productId = UUID.randomUUID();
+        store.add(BAD_USER, productId, 1, null);
+        store.flush();
+        store.flush();
+        calls.clear();
+
+        store.add(BAD_USER, productId, 1, null);
+        store.flush();
+        store.flush();
+
+        assertThat(calls).containsExactly(List.of(BAD_USER));
+        assertThat(meterRegistry.get("cart.store.parked").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void writesCarryTheStoredVersionAsTheirBase() {
+        UUID productId = UUID.randomUUID();
+        store.add(1L, productId, 1, null);
+        store.flush();
+        store.add(1L, productId, 1, null);
+        store.add(1L, productId, 1, null);
+        List<CartWrite> writes = new ArrayList<>();
+        doAnswer(invocation -> {
+            writes.addAll(invocation.getArgument(0));
+            return List.of();
+        }).when(cartJdbcRepository).applyAll(anyList());
+
+        store.flush();
+
+        assertThat(writes).singleElement().satisfies(write -> {
+            assertThat(write.baseVersion()).isEqualTo(1);
+            assertThat(write.version()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void conflictReloadsTheCartAndFailsTheNextConditionalMutation() {
+        store.add(CONFLICTING_USER, UUID.randomUUID(), 1, null);
+        store.flush();
+
+        assertThat(meterRegistry.get("cart.store.conflicts").counter().count()).isEqualTo(1);
+        // Reloaded from the repository, which has no cart for this user in this test
+        assertThat(store.find(CONFLICTING_USER)).isEmpty();
+        assertThatThrownBy(() -> store.add(CONFLICTING_USER, UUID.randomUUID(), 1, 0L))
+                .isInstanceOf(CartVersionConflictException.class);
+        assertThat(store.add(CONFLICTING_USER, UUID.randomUUID(), 1, 0L).version()).isEqualTo(1);
+    }
+}
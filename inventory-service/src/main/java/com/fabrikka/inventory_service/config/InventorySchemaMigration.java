@@ -0,0 +1,81 @@
+package com.fabrikka.inventory_service.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Brings databases created before {@code product_id} was unique up to date.
+ * <p>
+ * Earlier versions could insert several inventory rows for the same product. For each such product
+ * the row with the highest stock is kept and the rest are deleted, then the unique index is created.
+ * Both steps are idempotent, so this runs on every startup and does nothing once the data is clean.
+ * <p>
+ * It runs before the {@code EntityManagerFactory} is built, because Hibernate's schema update would
+ * otherwise try to create the unique index from the entity mapping while duplicates still exist.
+ * On a fresh database there is no table yet and Hibernate creates it with the index.
+ */
+@Component(InventorySchemaMigration.BEAN_NAME)
+public class InventorySchemaMigration implements InitializingBean {
+
+    static final String BEAN_NAME = "inventorySchemaMigration";
+
+    Logger logger = LoggerFactory.getLogger(InventorySchemaMigration.class);
+
+    private final DataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventorySchemaMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor inventorySchemaMigrationFirst() {
+        return new EntityManagerFactoryDependsOnPostProcessor(BEAN_NAME);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        if (!inventoryTableExists()) {
+            return;
+        }
+        List<UUID> duplicated = jdbcTemplate.queryForList(
+                "SELECT product_id FROM inventory WHERE product_id IS NOT NULL GROUP BY product_id HAVING COUNT(*) > 1", UUID.class);
+        for (UUID productId : duplicated) {
+            List<UUID> rows = jdbcTemplate.queryForList(
+                    "SELECT inventory_id FROM inventory WHERE product_id = ? ORDER BY available_stock DESC, inventory_id",
+                    UUID.class, productId);
+            rows.subList(1, rows.size()).forEach(inventoryId ->
+                    jdbcTemplate.update("DELETE FROM inventory WHERE inventory_id = ?", inventoryId));
+            logger.warn("Removed {} duplicate inventory rows for product ID: {}", rows.size() - 1, productId);
+        }
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_inventory_product_id ON inventory (product_id)");
+    }
+
+    private boolean inventoryTableExists() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            // Unquoted identifiers are stored upper-case by H2 and lower-case by PostgreSQL
+            for (String name : List.of("inventory", "INVENTORY")) {
+                try (ResultSet tables = connection.getMetaData().getTables(null, null, name, new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.fabrikka.inventory_service.controller;
 
 import com.fabrikka.common.*;
+import com.fabrikka.inventory_service.dto.StockReservationDto;
 import com.fabrikka.inventory_service.service.InventoryService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
@@ -23,15 +27,45 @@ public class InventoryController {
         return ResponseEntity.ok(inventory);
     }
 
+    @PostMapping("/batch")
+    ResponseEntity<List<InventoryDto>> getInventories(@RequestBody Set<UUID> productIds) {
+        List<InventoryDto> inventories = inventoryService.getInventories(productIds);
+        return ResponseEntity.ok(inventories);
+    }
+
+    /**
+     * Full stock snapshot, used by product-service to bootstrap its stock near-cache.
+     */
+    @GetMapping("/snapshot")
+    ResponseEntity<List<InventoryDto>> getAllInventories() {
+        return ResponseEntity.ok(inventoryService.getAllInventories());
+    }
+
     @PutMapping("/{productId}")
     ResponseEntity<String> updateInventory(@PathVariable UUID productId, @RequestParam Integer quantity) {
         inventoryService.updateInventory(productId, quantity);
         return ResponseEntity.ok("Inventory updated successfully");
     }
 
+    /**
+     * Atomically takes stock for an order. Responds 200 when reserved and 409 when there is not enough stock.
+     */
+    @PostMapping("/{productId}/reserve")
+    ResponseEntity<StockReservationDto> reserveStock(@PathVariable UUID productId, @RequestParam Integer quantity) {
+        boolean reserved = inventoryService.reserveStock(productId, quantity);
+        StockReservationDto reservation = new StockReservationDto(productId, quantity, reserved);
+        return reserved ? ResponseEntity.ok(reservation) : ResponseEntity.status(HttpStatus.CONFLICT).body(reservation);
+    }
+
     @PostMapping("/add")
     ResponseEntity<String> addInventory(@RequestBody InventoryDto inventoryDto) {
         inventoryService.createInventory(inventoryDto);
         return ResponseEntity.ok("Inventory created successfully");
     }
+
+    @PostMapping("/addAll")
+    ResponseEntity<String> addAllInventory(@RequestBody List<InventoryDto> inventoryDtos) {
+        inventoryService.createInventories(inventoryDtos);
+        return ResponseEntity.ok("Inventory created successfully");
+    }
 }
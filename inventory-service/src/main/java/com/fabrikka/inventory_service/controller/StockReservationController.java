@@ -0,0 +1,52 @@
+package com.fabrikka.inventory_service.controller;
+
+import com.fabrikka.inventory_service.dto.ReservationDto;
+import com.fabrikka.inventory_service.dto.ReservationRequest;
+import com.fabrikka.inventory_service.exception.InsufficientStockException;
+import com.fabrikka.inventory_service.service.StockReservationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/inventory/reservations")
+public class StockReservationController {
+
+    final StockReservationService stockReservationService;
+
+    public StockReservationController(StockReservationService stockReservationService) {
+        this.stockReservationService = stockReservationService;
+    }
+
+    @PostMapping
+    ResponseEntity<ReservationDto> placeHold(@RequestBody ReservationRequest request) {
+        return ResponseEntity.ok(stockReservationService.placeHold(request));
+    }
+
+    @PostMapping("/{reservationId}/commit")
+    ResponseEntity<ReservationDto> commitHold(@PathVariable UUID reservationId) {
+        return ResponseEntity.ok(stockReservationService.commitHold(reservationId));
+    }
+
+    @PostMapping("/{reservationId}/release")
+    ResponseEntity<ReservationDto> releaseHold(@PathVariable UUID reservationId) {
+        return ResponseEntity.ok(stockReservationService.releaseHold(reservationId));
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    ResponseEntity<String> handleInsufficientStock(InsufficientStockException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(exception.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    ResponseEntity<String> handleInvalidRequest(IllegalArgumentException exception) {
+        return ResponseEntity.badRequest().body(exception.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    ResponseEntity<String> handleSettled(IllegalStateException exception) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(exception.getMessage());
+    }
+}
@@ -0,0 +1,19 @@
+package com.fabrikka.inventory_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ReservationLineDto {
+
+    private UUID productId;
+
+    private Integer quantity;
+}
@@ -0,0 +1,24 @@
+package com.fabrikka.inventory_service.dto;
+
+import com.fabrikka.common.InventoryDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Event broadcast on the stock-changed destination with the current stock of every product
+ * whose inventory was written since the previous event. Values are absolute, not deltas, so a
+ * consumer can apply them in any order and lose one without drifting. An event with no
+ * inventories is a heartbeat.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class StockChangedEvent {
+
+    private List<InventoryDto> inventories;
+}
@@ -3,7 +3,9 @@ package com.fabrikka.inventory_service.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -12,6 +14,8 @@ import lombok.Setter;
 import java.util.UUID;
 
 @Entity
+// One row per product; every read goes through product_id, so it gets a unique B-tree index
+@Table(name = "inventory", indexes = @Index(name = "uk_inventory_product_id", columnList = "product_id", unique = true))
 @AllArgsConstructor
 @NoArgsConstructor
 @Setter
@@ -21,6 +25,7 @@ public class Inventory {
     @Id
     UUID inventoryId;
 
+    @Column(name = "product_id", nullable = false)
     UUID productId;
 
     Integer availableStock;
@@ -0,0 +1,21 @@
+package com.fabrikka.inventory_service.entity;
+
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+public class ReservationLine {
+
+    UUID productId;
+
+    Integer quantity;
+}
@@ -0,0 +1,8 @@
+package com.fabrikka.inventory_service.entity;
+
+public enum ReservationStatus {
+    HELD,
+    COMMITTED,
+    RELEASED,
+    EXPIRED
+}
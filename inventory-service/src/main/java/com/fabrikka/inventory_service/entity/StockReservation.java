@@ -0,0 +1,59 @@
+package com.fabrikka.inventory_service.entity;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A time-limited hold on stock for one checkout. The held quantities are already deducted from
+ * {@link Inventory}; committing keeps them deducted, releasing or expiring gives them back.
+ */
+@Entity
+@Table(name = "stock_reservation", indexes = @Index(name = "idx_stock_reservation_status", columnList = "status"))
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+public class StockReservation {
+
+    @Id
+    UUID reservationId;
+
+    @Enumerated(EnumType.STRING)
+    ReservationStatus status;
+
+    Instant createdAt;
+
+    Instant expiresAt;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "stock_reservation_line", joinColumns = @JoinColumn(name = "reservation_id"))
+    List<ReservationLine> lines = new ArrayList<>();
+
+    @PrePersist
+    public void prePersist() {
+        if (reservationId == null) {
+            reservationId = UUID.randomUUID();
+        }
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+}
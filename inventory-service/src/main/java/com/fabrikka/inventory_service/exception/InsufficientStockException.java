@@ -0,0 +1,10 @@
+package com.fabrikka.inventory_service.exception;
+
+import java.util.UUID;
+
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(UUID productId, Integer quantity) {
+        super(String.format("Insufficient stock for product ID: %s, requested: %d", productId, quantity));
+    }
+}
@@ -2,12 +2,42 @@ package com.fabrikka.inventory_service.repository;
 
 import com.fabrikka.inventory_service.entity.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
 
     Inventory findByProductId(UUID productId);
+
+    List<Inventory> findByProductIdIn(Collection<UUID> productIds);
+
+    /**
+     * Decrements stock only if enough is available; the check and the write are a single statement,
+     * so concurrent callers can never take the stock below zero.
+     *
+     * @return 1 if the stock was taken, 0 if there was not enough stock or no inventory row
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Inventory i set i.availableStock = i.availableStock - :quantity "
+            + "where i.productId = :productId and i.availableStock >= :quantity")
+    int decrementStock(@Param("productId") UUID productId, @Param("quantity") int quantity);
+
+    /**
+     * Unconditionally adds (or, with a negative quantity, removes) stock in a single statement.
+     *
+     * @return the number of inventory rows updated
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Inventory i set i.availableStock = i.availableStock + :quantity where i.productId = :productId")
+    int incrementStock(@Param("productId") UUID productId, @Param("quantity") int quantity);
 }
@@ -0,0 +1,30 @@
+package com.fabrikka.inventory_service.repository;
+
+import com.fabrikka.inventory_service.entity.ReservationStatus;
+import com.fabrikka.inventory_service.entity.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
+
+    List<StockReservation> findByStatus(ReservationStatus status);
+
+    /**
+     * Moves a reservation between states only if it is still in the expected one, so a commit racing an
+     * expiry (or a double release) is applied exactly once.
+     *
+     * @return 1 if the transition happened, 0 otherwise
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update StockReservation r set r.status = :to where r.reservationId = :reservationId and r.status = :from")
+    int transition(@Param("reservationId") UUID reservationId,
+                   @Param("from") ReservationStatus from,
+                   @Param("to") ReservationStatus to);
+}
@@ -4,6 +4,8 @@ package com.fabrikka.inventory_service.service;
 import com.fabrikka.common.InventoryDto;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -11,7 +13,15 @@ public interface InventoryService {
 
     InventoryDto getInventory(UUID productId);
 
+    List<InventoryDto> getInventories(Set<UUID> productIds);
+
+    List<InventoryDto> getAllInventories();
+
     void updateInventory(UUID productId, Integer quantity);
 
+    boolean reserveStock(UUID productId, Integer quantity);
+
     void createInventory(InventoryDto inventoryDto);
+
+    void createInventories(List<InventoryDto> inventoryDtos);
 }
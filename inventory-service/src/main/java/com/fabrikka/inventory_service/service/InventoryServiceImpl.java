@@ -7,7 +7,14 @@ import com.fabrikka.inventory_service.repository.InventoryRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -15,8 +22,15 @@ public class InventoryServiceImpl implements InventoryService {
 
     final InventoryRepository inventoryRepository;
 
-    public InventoryServiceImpl(InventoryRepository inventoryRepository) {
+    final StockReservationBuffer reservationBuffer;
+
+    final StockEventPublisher stockEventPublisher;
+
+    public InventoryServiceImpl(InventoryRepository inventoryRepository, StockReservationBuffer reservationBuffer,
+                                StockEventPublisher stockEventPublisher) {
         this.inventoryRepository = inventoryRepository;
+        this.reservationBuffer = reservationBuffer;
+        this.stockEventPublisher = stockEventPublisher;
     }
 
     @Override
@@ -25,28 +39,93 @@ public class InventoryServiceImpl implements InventoryService {
         if (inventory == null) {
             throw new RuntimeException("Inventory not found for product ID: " + productId);
         }
-        InventoryDto inventoryDto = new InventoryDto();
-        inventoryDto.setProductId(inventory.getProductId());
-        inventoryDto.setAvailableStock(inventory.getAvailableStock());
+        return toInventoryDto(inventory);
+    }
 
-        return inventoryDto;
+    @Override
+    public List<InventoryDto> getInventories(Set<UUID> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Single IN query instead of one lookup per product; missing IDs are simply absent from the result.
+        return inventoryRepository.findByProductIdIn(productIds).stream()
+                .map(this::toInventoryDto)
+                .collect(Collectors.toList());
     }
 
     @Override
     public void updateInventory(UUID productId, Integer quantity) {
-        Inventory inventory = inventoryRepository.findByProductId(productId);
-        if (inventory == null) {
+        // Single UPDATE statement, so concurrent adjustments cannot overwrite each other
+        if (inventoryRepository.incrementStock(productId, -quantity) == 0) {
+            throw new RuntimeException("Inventory not found for product ID: " + productId);
+        }
+        stockEventPublisher.stockChanged(List.of(productId));
+    }
+
+    @Override
+    public List<InventoryDto> getAllInventories() {
+        return inventoryRepository.findAll().stream()
+                .map(this::toInventoryDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean reserveStock(UUID productId, Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        boolean reserved = reservationBuffer.isEnabled()
+                ? reservationBuffer.reserve(productId, quantity)
+                : inventoryRepository.decrementStock(productId, quantity) == 1;
+        if (!reserved && inventoryRepository.findByProductId(productId) == null) {
             throw new RuntimeException("Inventory not found for product ID: " + productId);
         }
-        inventory.setAvailableStock(inventory.getAvailableStock() - quantity);
-        inventoryRepository.save(inventory); // Ensure this is saving an Inventory entity
+        if (reserved) {
+            stockEventPublisher.stockChanged(List.of(productId));
+        }
+        return reserved;
     }
 
     @Override
     public void createInventory(InventoryDto inventoryDto) {
-        Inventory inventory = new Inventory();
+        // product_id is unique, so creating inventory for a product that already has a row sets its stock instead
+        Inventory inventory = inventoryRepository.findByProductId(inventoryDto.getProductId());
+        if (inventory == null) {
+            inventory = new Inventory();
+        }
         inventory.setProductId(inventoryDto.getProductId());
         inventory.setAvailableStock(inventoryDto.getAvailableStock());
         inventoryRepository.save(inventory);
+        stockEventPublisher.stockChanged(List.of(inventoryDto.getProductId()));
+    }
+
+    @Override
+    public void createInventories(List<InventoryDto> inventoryDtos) {
+        // Persisted with one saveAll so Hibernate can group the inserts into JDBC batches. Products that already
+        // have a row (re-imports, retried calls) keep their live stock; an import never resets it
+        Set<UUID> existing = inventoryRepository.findByProductIdIn(inventoryDtos.stream()
+                        .map(InventoryDto::getProductId)
+                        .collect(Collectors.toSet())).stream()
+                .map(Inventory::getProductId)
+                .collect(Collectors.toSet());
+        Map<UUID, Inventory> created = new LinkedHashMap<>();
+        for (InventoryDto inventoryDto : inventoryDtos) {
+            if (!existing.contains(inventoryDto.getProductId())) {
+                Inventory inventory = new Inventory();
+                inventory.setProductId(inventoryDto.getProductId());
+                inventory.setAvailableStock(inventoryDto.getAvailableStock());
+                created.put(inventoryDto.getProductId(), inventory);
+            }
+        }
+        if (created.isEmpty()) {
+            return;
+        }
+        inventoryRepository.saveAll(created.values());
+        stockEventPublisher.stockChanged(new ArrayList<>(created.keySet()));
+    }
+
+    private InventoryDto toInventoryDto(Inventory inventory) {
+        // Stock already claimed by the reservation buffer but not handed out is still available
+        return new InventoryDto(inventory.getProductId(), reservationBuffer.availableStock(inventory));
     }
 }
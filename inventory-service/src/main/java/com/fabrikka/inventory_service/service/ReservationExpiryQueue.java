@@ -0,0 +1,50 @@
+package com.fabrikka.inventory_service.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory expiry index for held reservations, ordered by expiry time.
+ * <p>
+ * Only the head of the queue is ever examined, so the sweeper wakes up exactly when the next hold
+ * is due instead of polling the reservation table. Entries are not removed on commit or release;
+ * expiring an already settled reservation is a no-op state transition.
+ */
+@Component
+public class ReservationExpiryQueue {
+
+    private final DelayQueue<ExpiringReservation> queue = new DelayQueue<>();
+
+    public void schedule(UUID reservationId, Instant expiresAt) {
+        queue.put(new ExpiringReservation(reservationId, expiresAt.toEpochMilli()));
+    }
+
+    /**
+     * Blocks until the next reservation is due and returns its ID.
+     */
+    public UUID takeExpired() throws InterruptedException {
+        return queue.take().reservationId();
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private record ExpiringReservation(UUID reservationId, long expiresAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtMillis, ((ExpiringReservation) other).expiresAtMillis);
+        }
+    }
+}
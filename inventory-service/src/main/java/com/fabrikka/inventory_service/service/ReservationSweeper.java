@@ -0,0 +1,75 @@
+package com.fabrikka.inventory_service.service;
+
+import com.fabrikka.inventory_service.entity.ReservationStatus;
+import com.fabrikka.inventory_service.repository.StockReservationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Single background thread that releases holds as they expire.
+ * <p>
+ * At startup the holds still open in the database are loaded once into the {@link ReservationExpiryQueue},
+ * so holds placed before a restart still expire. After that the thread only blocks on the queue head.
+ */
+@Component
+public class ReservationSweeper {
+
+    Logger logger = LoggerFactory.getLogger(ReservationSweeper.class);
+
+    private final StockReservationService stockReservationService;
+
+    private final StockReservationRepository stockReservationRepository;
+
+    private final ReservationExpiryQueue expiryQueue;
+
+    private Thread worker;
+
+    public ReservationSweeper(StockReservationService stockReservationService,
+                              StockReservationRepository stockReservationRepository,
+                              ReservationExpiryQueue expiryQueue) {
+        this.stockReservationService = stockReservationService;
+        this.stockReservationRepository = stockReservationRepository;
+        this.expiryQueue = expiryQueue;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        stockReservationRepository.findByStatus(ReservationStatus.HELD)
+                .forEach(reservation -> expiryQueue.schedule(reservation.getReservationId(), reservation.getExpiresAt()));
+        logger.info("Reservation sweeper started with {} open holds", expiryQueue.size());
+
+        worker = new Thread(this::run, "reservation-sweeper");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            UUID reservationId;
+            try {
+                reservationId = expiryQueue.takeExpired();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                stockReservationService.expireHold(reservationId);
+            } catch (Exception e) {
+                logger.error("Could not expire reservation {}, exception:{} ", reservationId, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.fabrikka.inventory_service.service;
+
+import com.fabrikka.common.InventoryDto;
+import com.fabrikka.inventory_service.dto.StockChangedEvent;
+import com.fabrikka.inventory_service.repository.InventoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes {@link StockChangedEvent}s for product-service's stock near-cache.
+ * <p>
+ * Writes only mark a product as changed once their transaction commits. A scheduled flush then reads
+ * the current stock of all marked products in one query and sends a single event, so a burst of
+ * reservations on a hot product costs one message per flush instead of one per reservation.
+ * <p>
+ * When nothing changed for {@code inventory.stock-events.heartbeat-interval-ms}, an event without
+ * inventories is sent as a heartbeat, so consumers can tell a quiet stream from a broken one.
+ */
+@Component
+public class StockEventPublisher {
+
+    public static final String STOCK_CHANGED_BINDING = "stock-changed-out-0";
+
+    Logger logger = LoggerFactory.getLogger(StockEventPublisher.class);
+
+    private final StreamBridge streamBridge;
+
+    private final InventoryRepository inventoryRepository;
+
+    private final StockReservationBuffer reservationBuffer;
+
+    private final long heartbeatIntervalMillis;
+
+    private final Set<UUID> changed = ConcurrentHashMap.newKeySet();
+
+    // Only touched by the scheduled flush
+    private long lastSentAt;
+
+    public StockEventPublisher(StreamBridge streamBridge, InventoryRepository inventoryRepository,
+                               StockReservationBuffer reservationBuffer,
+                               @Value("${inventory.stock-events.heartbeat-interval-ms:30000}") long heartbeatIntervalMillis) {
+        this.streamBridge = streamBridge;
+        this.inventoryRepository = inventoryRepository;
+        this.reservationBuffer = reservationBuffer;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+    }
+
+    public void stockChanged(Collection<UUID> productIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<UUID> ids = new ArrayList<>(productIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changed.addAll(ids);
+                }
+            });
+        } else {
+            changed.addAll(productIds);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.stock-events.flush-interval-ms:500}")
+    public void flush() {
+        if (changed.isEmpty()) {
+            if (System.currentTimeMillis() - lastSentAt >= heartbeatIntervalMillis) {
+                send(List.of());
+            }
+            return;
+        }
+        // Unmark before reading, so a write committed after this point is picked up by the next flush
+        List<UUID> productIds = new ArrayList<>(changed);
+        productIds.forEach(changed::remove);
+        try {
+            List<InventoryDto> inventories = inventoryRepository.findByProductIdIn(productIds).stream()
+                    .map(inventory -> new InventoryDto(inventory.getProductId(), reservationBuffer.availableStock(inventory)))
+                    .collect(Collectors.toList());
+            send(inventories);
+        } catch (Exception e) {
+            logger.warn("Error occurred while publishing stock change event: {}", e.getMessage());
+        }
+    }
+
+    private void send(List<InventoryDto> inventories) {
+        try {
+            if (streamBridge.send(STOCK_CHANGED_BINDING, new StockChangedEvent(inventories))) {
+                lastSentAt = System.currentTimeMillis();
+            }
+        } catch (Exception e) {
+            logger.warn("Error occurred while publishing stock change event: {}", e.getMessage());
+        }
+    }
+}
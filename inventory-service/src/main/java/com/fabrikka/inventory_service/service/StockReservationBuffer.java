@@ -0,0 +1,163 @@
+package com.fabrikka.inventory_service.service;
+
+import com.fabrikka.inventory_service.entity.Inventory;
+import com.fabrikka.inventory_service.repository.InventoryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional in-memory front for stock reservations on hot products.
+ * <p>
+ * Instead of one conditional UPDATE per reservation, the buffer claims stock from the database
+ * in blocks of {@code inventory.reservation.buffer.block-size} with the same atomic decrement, then
+ * serves reservations from a per-product counter with a CAS loop. Stock is removed from the
+ * database before it is handed out locally, so the buffer can never oversell. Unused allotments
+ * are returned to the database on every flush, and on shutdown.
+ * <p>
+ * An allotment is still available stock. Every read and stock event goes through
+ * {@link #availableStock(Inventory)}, so all endpoints report the same number whether or not part
+ * of it currently sits in the buffer. Moving stock between the buffer and the database does not
+ * change that number, so it publishes no stock event.
+ */
+@Component
+public class StockReservationBuffer {
+
+    Logger logger = LoggerFactory.getLogger(StockReservationBuffer.class);
+
+    private final InventoryRepository inventoryRepository;
+
+    private final boolean enabled;
+
+    private final int blockSize;
+
+    private final Map<UUID, AtomicInteger> allotments = new ConcurrentHashMap<>();
+
+    public StockReservationBuffer(InventoryRepository inventoryRepository,
+                                  @Value("${inventory.reservation.buffer.enabled:false}") boolean enabled,
+                                  @Value("${inventory.reservation.buffer.block-size:50}") int blockSize) {
+        this.inventoryRepository = inventoryRepository;
+        this.enabled = enabled;
+        this.blockSize = blockSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserves the quantity from the local allotment, claiming a new block from the database when it runs dry.
+     *
+     * @return true if reserved, false if the database does not hold enough stock
+     */
+    public boolean reserve(UUID productId, int quantity) {
+        AtomicInteger allotment = allotments.computeIfAbsent(productId, id -> new AtomicInteger());
+        if (tryTake(allotment, quantity)) {
+            return true;
+        }
+        synchronized (allotment) {
+            // Another thread may have refilled while this one waited
+            if (tryTake(allotment, quantity)) {
+                return true;
+            }
+            int block = Math.max(quantity, blockSize);
+            if (inventoryRepository.decrementStock(productId, block) == 1) {
+                allotment.addAndGet(block - quantity);
+                return true;
+            }
+            // Not enough left for a full block; fall back to claiming exactly what was asked for
+            return block != quantity && inventoryRepository.decrementStock(productId, quantity) == 1;
+        }
+    }
+
+    /**
+     * Stock claimed from the database but not yet handed out, which still counts as available.
+     */
+    public int unreserved(UUID productId) {
+        AtomicInteger allotment = allotments.get(productId);
+        return allotment != null ? allotment.get() : 0;
+    }
+
+    /**
+     * The stock of the row plus what the buffer holds for the product, as callers should see it.
+     */
+    public int availableStock(Inventory inventory) {
+        return inventory.getAvailableStock() + unreserved(inventory.getProductId());
+    }
+
+    /**
+     * Returns the product's allotment to the database row, so a hold that decrements the row directly can
+     * use it. Within a transaction the allotment is restored if the transaction does not commit, since the
+     * row increment is rolled back with it.
+     *
+     * @return the quantity returned
+     */
+    public int returnToStock(UUID productId) {
+        AtomicInteger allotment = allotments.get(productId);
+        if (allotment == null) {
+            return 0;
+        }
+        synchronized (allotment) {
+            int leftover = allotment.getAndSet(0);
+            if (leftover > 0) {
+                inventoryRepository.incrementStock(productId, leftover);
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            if (status != STATUS_COMMITTED) {
+                                allotment.addAndGet(leftover);
+                            }
+                        }
+                    });
+                }
+            }
+            return leftover;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.buffer.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        allotments.forEach((productId, allotment) -> {
+            synchronized (allotment) {
+                int leftover = allotment.getAndSet(0);
+                if (leftover > 0) {
+                    inventoryRepository.incrementStock(productId, leftover);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Could not return buffered stock on shutdown, exception:{} ", e.getMessage());
+        }
+    }
+
+    private boolean tryTake(AtomicInteger allotment, int quantity) {
+        int current;
+        do {
+            current = allotment.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!allotment.compareAndSet(current, current - quantity));
+        return true;
+    }
+}
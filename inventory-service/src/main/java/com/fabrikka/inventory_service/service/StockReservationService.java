@@ -0,0 +1,19 @@
+package com.fabrikka.inventory_service.service;
+
+import com.fabrikka.inventory_service.dto.ReservationDto;
+import com.fabrikka.inventory_service.dto.ReservationRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Service
+public interface StockReservationService {
+
+    ReservationDto placeHold(ReservationRequest request);
+
+    ReservationDto commitHold(UUID reservationId);
+
+    ReservationDto releaseHold(UUID reservationId);
+
+    void expireHold(UUID reservationId);
+}
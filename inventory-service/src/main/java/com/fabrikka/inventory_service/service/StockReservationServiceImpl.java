@@ -0,0 +1,161 @@
+package com.fabrikka.inventory_service.service;
+
+import com.fabrikka.inventory_service.dto.ReservationDto;
+import com.fabrikka.inventory_service.dto.ReservationLineDto;
+import com.fabrikka.inventory_service.dto.ReservationRequest;
+import com.fabrikka.inventory_service.entity.ReservationLine;
+import com.fabrikka.inventory_service.entity.ReservationStatus;
+import com.fabrikka.inventory_service.entity.StockReservation;
+import com.fabrikka.inventory_service.exception.InsufficientStockException;
+import com.fabrikka.inventory_service.repository.InventoryRepository;
+import com.fabrikka.inventory_service.repository.StockReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class StockReservationServiceImpl implements StockReservationService {
+
+    final StockReservationRepository stockReservationRepository;
+
+    final InventoryRepository inventoryRepository;
+
+    final ReservationExpiryQueue expiryQueue;
+
+    final StockEventPublisher stockEventPublisher;
+
+    final StockReservationBuffer reservationBuffer;
+
+    @Value("${inventory.reservation.ttl-seconds:600}")
+    long defaultTtlSeconds;
+
+    @Value("${inventory.reservation.max-ttl-seconds:3600}")
+    long maxTtlSeconds;
+
+    public StockReservationServiceImpl(StockReservationRepository stockReservationRepository,
+                                       InventoryRepository inventoryRepository,
+                                       ReservationExpiryQueue expiryQueue,
+                                       StockEventPublisher stockEventPublisher,
+                                       StockReservationBuffer reservationBuffer) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.expiryQueue = expiryQueue;
+        this.stockEventPublisher = stockEventPublisher;
+        this.reservationBuffer = reservationBuffer;
+    }
+
+    /**
+     * Takes the stock for every line with a conditional decrement and records the hold. If any line
+     * is short the whole transaction rolls back, so a checkout never holds part of its cart.
+     * A line the row cannot cover first pulls back stock parked in the reservation buffer.
+     */
+    @Override
+    public ReservationDto placeHold(ReservationRequest request) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Reservation must contain at least one item");
+        }
+        // Merge repeated products and decrement in a fixed order, so concurrent holds lock rows in the same sequence
+        Map<UUID, Integer> quantities = new TreeMap<>();
+        request.getItems().forEach(item -> {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for product ID: " + item.getProductId());
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        });
+        quantities.forEach((productId, quantity) -> {
+            if (inventoryRepository.decrementStock(productId, quantity) == 0
+                    && (reservationBuffer.returnToStock(productId) == 0
+                    || inventoryRepository.decrementStock(productId, quantity) == 0)) {
+                throw new InsufficientStockException(productId, quantity);
+            }
+        });
+
+        long ttlSeconds = request.getTtlSeconds() != null ? Math.min(request.getTtlSeconds(), maxTtlSeconds) : defaultTtlSeconds;
+        StockReservation reservation = new StockReservation();
+        reservation.setStatus(ReservationStatus.HELD);
+        reservation.setExpiresAt(Instant.now().plusSeconds(ttlSeconds));
+        reservation.setLines(quantities.entrySet().stream()
+                .map(entry -> new ReservationLine(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList()));
+        StockReservation saved = stockReservationRepository.save(reservation);
+        stockEventPublisher.stockChanged(quantities.keySet());
+
+        // Only track the expiry once the hold is durable; a rolled back hold has nothing to release
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                expiryQueue.schedule(saved.getReservationId(), saved.getExpiresAt());
+            }
+        });
+        return toReservationDto(saved);
+    }
+
+    @Override
+    public ReservationDto commitHold(UUID reservationId) {
+        // Stock was deducted when the hold was placed, so committing is just the state change
+        settle(reservationId, ReservationStatus.COMMITTED);
+        return toReservationDto(getReservation(reservationId));
+    }
+
+    @Override
+    public ReservationDto releaseHold(UUID reservationId) {
+        boolean released = settle(reservationId, ReservationStatus.RELEASED);
+        StockReservation reservation = getReservation(reservationId);
+        if (released) {
+            restoreStock(reservation.getLines());
+        }
+        return toReservationDto(reservation);
+    }
+
+    @Override
+    public void expireHold(UUID reservationId) {
+        if (stockReservationRepository.transition(reservationId, ReservationStatus.HELD, ReservationStatus.EXPIRED) == 1) {
+            restoreStock(getReservation(reservationId).getLines());
+        }
+    }
+
+    /**
+     * Moves a held reservation to {@code target}. Settling it again to the same state is a no-op, so callers
+     * can retry a commit or release whose response was lost.
+     *
+     * @return true if this call made the transition
+     */
+    private boolean settle(UUID reservationId, ReservationStatus target) {
+        if (stockReservationRepository.transition(reservationId, ReservationStatus.HELD, target) == 1) {
+            return true;
+        }
+        StockReservation reservation = getReservation(reservationId);
+        if (reservation.getStatus() != target) {
+            throw new IllegalStateException("Reservation " + reservationId + " is already " + reservation.getStatus());
+        }
+        return false;
+    }
+
+    private void restoreStock(List<ReservationLine> lines) {
+        lines.forEach(line -> inventoryRepository.incrementStock(line.getProductId(), line.getQuantity()));
+        stockEventPublisher.stockChanged(lines.stream().map(ReservationLine::getProductId).collect(Collectors.toList()));
+    }
+
+    private StockReservation getReservation(UUID reservationId) {
+        return stockReservationRepository.findById(reservationId)
+                .orElseThrow(() -> new RuntimeException("Reservation not found for ID: " + reservationId));
+    }
+
+    private ReservationDto toReservationDto(StockReservation reservation) {
+        List<ReservationLineDto> items = reservation.getLines().stream()
+                .map(line -> new ReservationLineDto(line.getProductId(), line.getQuantity()))
+                .collect(Collectors.toList());
+        return new ReservationDto(reservation.getReservationId(), reservation.getStatus().name(),
+                reservation.getExpiresAt(), items);
+    }
+}
@@ -0,0 +1,90 @@
+package com.fabrikka.inventory_service.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InventorySchemaMigrationTest {
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void keepsTheRowWithMostStockPerProductAndThenCreatesTheUniqueIndex() throws Exception {
+        createLegacyTable();
+        UUID productId = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        insert(productId, 3);
+        insert(productId, 7);
+        insert(productId, 5);
+        insert(other, 1);
+
+        new InventorySchemaMigration(database).afterPropertiesSet();
+
+        assertThat(jdbcTemplate.queryForList("SELECT available_stock FROM inventory WHERE product_id = ?", Integer.class, productId))
+                .containsExactly(7);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory", Integer.class)).isEqualTo(2);
+        assertThatThrownBy(() -> insert(other, 2)).isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void runsAgainOnCleanDataWithoutChanges() throws Exception {
+        createLegacyTable();
+        insert(UUID.randomUUID(), 4);
+        InventorySchemaMigration migration = new InventorySchemaMigration(database);
+
+        migration.afterPropertiesSet();
+        migration.afterPropertiesSet();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresRowsWithoutAProductId() throws Exception {
+        jdbcTemplate.execute("CREATE TABLE inventory (inventory_id UUID PRIMARY KEY, product_id UUID, available_stock INT)");
+        insert(null, 1);
+        insert(null, 2);
+        UUID productId = UUID.randomUUID();
+        insert(productId, 3);
+        insert(productId, 4);
+
+        new InventorySchemaMigration(database).afterPropertiesSet();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory WHERE product_id IS NULL", Integer.class)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT available_stock FROM inventory WHERE product_id = ?", Integer.class, productId))
+                .containsExactly(4);
+    }
+
+    @Test
+    void leavesAFreshDatabaseToHibernate() {
+        assertThatCode(() -> new InventorySchemaMigration(database).afterPropertiesSet()).doesNotThrowAnyException();
+    }
+
+    private void createLegacyTable() {
+        jdbcTemplate.execute("CREATE TABLE inventory (inventory_id UUID PRIMARY KEY, product_id UUID NOT NULL, available_stock INT)");
+    }
+
+    private void insert(UUID productId, int stock) {
+        jdbcTemplate.update("INSERT INTO inventory (inventory_id, product_id, available_stock) VALUES (?, ?, ?)",
+                UUID.randomUUID(), productId, stock);
+    }
+}
@@ -0,0 +1,105 @@
+package com.fabrikka.inventory_service.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures {@code findByProductId} latency as the catalog grows from 1k to 1M SKUs, once against the
+ * {@code uk_inventory_product_id} index and once against the same rows without it (the old full scan).
+ * Not part of the regular build; run it with
+ * {@code ./mvnw test -Dtest=InventoryLookupBenchmark -Dbenchmark=true [-Dbenchmark.lookups=20000]}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InventoryLookupBenchmark {
+
+    private static final int[] SKUS = {1_000, 10_000, 100_000, 1_000_000};
+
+    // The same statement Hibernate issues for InventoryRepository.findByProductId
+    private static final String FIND_BY_PRODUCT_ID =
+            "SELECT inventory_id, available_stock, product_id FROM %s WHERE product_id = ?";
+
+    private static final int SCAN_LOOKUPS = 50;
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void lookupLatencyBySkuCount() {
+        int lookups = Integer.getInteger("benchmark.lookups", 20_000);
+        jdbcTemplate.execute("CREATE TABLE inventory (inventory_id UUID PRIMARY KEY, available_stock INT, product_id UUID NOT NULL)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uk_inventory_product_id ON inventory (product_id)");
+        jdbcTemplate.execute("CREATE TABLE inventory_unindexed (inventory_id UUID PRIMARY KEY, available_stock INT, product_id UUID NOT NULL)");
+
+        List<UUID> productIds = new ArrayList<>();
+        Random random = new Random(42);
+        for (int skus : SKUS) {
+            List<UUID> added = new ArrayList<>();
+            while (productIds.size() + added.size() < skus) {
+                added.add(UUID.randomUUID());
+            }
+            insert("inventory", added);
+            insert("inventory_unindexed", added);
+            productIds.addAll(added);
+
+            // Warm up the statement and H2's page cache before measuring
+            time("inventory", productIds, random, lookups);
+            long[] indexed = time("inventory", productIds, random, lookups);
+            long[] scanned = time("inventory_unindexed", productIds, random, SCAN_LOOKUPS);
+            System.out.printf("%,d SKUs: indexed p50 %d us, p99 %d us; full scan p50 %d us, p99 %d us%n",
+                    skus, percentile(indexed, 50), percentile(indexed, 99),
+                    percentile(scanned, 50), percentile(scanned, 99));
+        }
+    }
+
+    private void insert(String table, List<UUID> productIds) {
+        String sql = "INSERT INTO " + table + " (inventory_id, available_stock, product_id) VALUES (?, ?, ?)";
+        for (int from = 0; from < productIds.size(); from += 10_000) {
+            List<Object[]> batch = new ArrayList<>();
+            for (UUID productId : productIds.subList(from, Math.min(from + 10_000, productIds.size()))) {
+                batch.add(new Object[]{UUID.randomUUID(), 10, productId});
+            }
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    private long[] time(String table, List<UUID> productIds, Random random, int lookups) {
+        String sql = String.format(FIND_BY_PRODUCT_ID, table);
+        long[] micros = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            UUID productId = productIds.get(random.nextInt(productIds.size()));
+            long started = System.nanoTime();
+            List<Integer> stock = jdbcTemplate.query(sql, (row, rowNum) -> row.getInt("available_stock"), productId);
+            micros[i] = (System.nanoTime() - started) / 1_000;
+            assertThat(stock).containsExactly(10);
+        }
+        return micros;
+    }
+
+    private static long percentile(long[] samples, int percentile) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+}
@@ -2,31 +2,39 @@ package com.Fabrikka.loadProduct.config;
 
 import com.Fabrikka.loadProduct.notification.NotificationTasklet;
 import com.Fabrikka.loadProduct.repository.ProductFileRepository;
+import com.Fabrikka.loadProduct.service.AdaptiveChunkSizePolicy;
+import com.Fabrikka.loadProduct.service.CsvProductReader;
 import com.Fabrikka.loadProduct.service.ExcelReader;
+import com.Fabrikka.loadProduct.service.NdjsonProductReader;
 import com.Fabrikka.loadProduct.service.ProductItemProcessor;
 import com.Fabrikka.loadProduct.service.ProductItemWriter;
+import com.Fabrikka.loadProduct.service.ProductReaderFactory;
+import com.Fabrikka.loadProduct.service.ProductRowReader;
+import com.Fabrikka.loadProduct.service.RowRangePartitioner;
 import com.fabrikka.common.ProductDto;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
-import java.io.IOException;
-
 /**
  * Batch configuration for product import and notification steps.
  * <p>
- * Defines beans for reading Excel files, processing and writing product data,
+ * Defines beans for reading uploaded product files, processing and writing product data,
  * sending notifications, and orchestrating the batch job.
  */
 @Configuration
@@ -36,8 +44,12 @@ public class BatchConfig {
     @Autowired
     private ProductFileRepository productFileRepository;
     @Autowired
+    private ProductReaderFactory productReaderFactory;
+    @Autowired
     private ProductItemWriter productItemWriter;
     @Autowired
+    private AdaptiveChunkSizePolicy adaptiveChunkSizePolicy;
+    @Autowired
     private PlatformTransactionManager transactionManager;
     @Autowired
     private JobRepository jobRepository;
@@ -46,18 +58,61 @@ public class BatchConfig {
     @Autowired
     private StreamBridge streamBridge;
 
+    @Value("${product.import.partitions:1}")
+    private int importPartitions;
+    @Value("${product.import.worker-pool-size:4}")
+    private int importWorkerPoolSize;
+    @Value("${product.import.skip-limit:100}")
+    private int importSkipLimit;
+
+    /**
+     * Creates the {@link ProductRowReader} bean for streaming product data from the uploaded file:
+     * an {@link ExcelReader}, {@link CsvProductReader} or {@link NdjsonProductReader}, depending on
+     * the format detected at upload. The file is identified by the provided fileId from job parameters.
+     * The reader is an {@code ItemStream}, so the step opens it and records its position for restarts.
+     * In a partition step, the row range comes from the partition's step execution context;
+     * otherwise both bounds are null and the whole file is read.
+     *
+     * @param fileId      the ID of the file to read, injected from job parameters
+     * @param startRow    first data row of the partition, inclusive
+     * @param endRow      last data row of the partition, exclusive
+     * @param startOffset byte offset of {@code startRow}, when the partitioner could record one
+     * @return the reader for the file's format
+     */
+    @StepScope
+    @Bean
+    public ProductRowReader reader(@Value("#{jobParameters['fileId']}") Long fileId,
+                                   @Value("#{stepExecutionContext['startRow']}") Long startRow,
+                                   @Value("#{stepExecutionContext['endRow']}") Long endRow,
+                                   @Value("#{stepExecutionContext['startOffset']}") Long startOffset) {
+        return productReaderFactory.create(fileId, startRow, endRow, startOffset);
+    }
+
     /**
-     * Creates an {@link ExcelReader} bean for reading product data from an Excel file.
-     * The file is identified by the provided fileId from job parameters.
+     * Creates the {@link RowRangePartitioner} that splits the uploaded file into row ranges.
      *
-     * @param fileId the ID of the file to read, injected from job parameters
-     * @return an instance of {@link ExcelReader}
-     * @throws IOException if the file cannot be read
+     * @param fileId the ID of the file to split, injected from job parameters
+     * @return an instance of {@link RowRangePartitioner}
      */
     @StepScope
     @Bean
-    public ExcelReader reader(@Value("#{jobParameters['fileId']}") Long fileId) throws IOException {
-        return new ExcelReader(fileId, productFileRepository);
+    public RowRangePartitioner partitioner(@Value("#{jobParameters['fileId']}") Long fileId) {
+        return new RowRangePartitioner(fileId, productReaderFactory);
+    }
+
+    /**
+     * Thread pool that runs the import partitions, sized by {@code product.import.worker-pool-size}.
+     *
+     * @return the task executor for partition steps
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(importWorkerPoolSize);
+        executor.setMaxPoolSize(importWorkerPoolSize);
+        executor.setThreadNamePrefix("import-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
     }
 
     /**
@@ -88,23 +143,50 @@ public class BatchConfig {
 
     /**
      * Defines the import step for reading, processing, and writing product data in chunks.
-     * Configures fault tolerance and skip logic for exceptions.
+     * With {@code product.import.partitions} above 1 the step becomes a manager that splits the
+     * uploaded file into row ranges and runs one worker step per range on {@link #importTaskExecutor()}.
+     * Every worker keeps its own execution context, so a restart only re-runs unfinished partitions
+     * from their last committed row.
      *
      * @param processor the processor for transforming product items
      * @param productItemWriter the writer for persisting product items
      * @return the import step
-     * @throws IOException if the reader cannot be created
+     * @throws Exception if the partition handler cannot be initialised
      */
     @Bean
-    public Step importStep(ProductItemProcessor processor, ProductItemWriter productItemWriter) throws IOException {
+    public Step importStep(ProductItemProcessor processor, ProductItemWriter productItemWriter) throws Exception {
+        if (importPartitions <= 1) {
+            return chunkStep("importStep", processor, productItemWriter);
+        }
+        TaskExecutorPartitionHandler partitionHandler = new TaskExecutorPartitionHandler();
+        partitionHandler.setStep(chunkStep("importPartitionStep", processor, productItemWriter));
+        partitionHandler.setTaskExecutor(importTaskExecutor());
+        partitionHandler.setGridSize(importPartitions);
+        partitionHandler.afterPropertiesSet();
         return new StepBuilder("importStep", jobRepository)
-                .<ProductDto, ProductDto>chunk(10, transactionManager)
-                .reader(reader(null)) // Spring injects job parameters at runtime
+                .partitioner("importPartitionStep", partitioner(null)) // Spring injects job parameters at runtime
+                .partitionHandler(partitionHandler)
+                .build();
+    }
+
+    /**
+     * Builds a fault-tolerant chunk step over the step-scoped reader; skip limits apply per step,
+     * so in partitioned mode each partition may skip up to the limit. Chunk boundaries come from
+     * the {@link AdaptiveChunkSizePolicy}, which partitions share.
+     */
+    private Step chunkStep(String name, ProductItemProcessor processor, ProductItemWriter productItemWriter) {
+        return new StepBuilder(name, jobRepository)
+                .<ProductDto, ProductDto>chunk(adaptiveChunkSizePolicy, transactionManager)
+                .reader(reader(null, null, null, null)) // Spring injects job parameters at runtime
                 .processor(processor)
                 .writer(productItemWriter)
                 .faultTolerant()
                 .skip(Exception.class)
-                .skipLimit(100)
+                // Raised by the writer once chunks that failed in the background exceed the limit
+                .noSkip(SkipLimitExceededException.class)
+                // The file itself is unreadable (I/O error, oversized record); no later row can be trusted
+                .noSkip(ItemStreamException.class)
+                .skipLimit(importSkipLimit)
                 .build();
     }
 
@@ -18,4 +18,7 @@ public interface ProductClient {
 
     @PostMapping("/products/addAll")
     public ResponseEntity<String> saveAll(@RequestBody List<ProductDto> productDto);
+
+    @PostMapping("/products/upsertAll")
+    public ResponseEntity<String> upsertAll(@RequestBody List<ProductDto> productDto);
 }
@@ -2,6 +2,8 @@ package com.Fabrikka.loadProduct.controller;
 
 import com.Fabrikka.loadProduct.entity.ProductFile;
 import com.Fabrikka.loadProduct.repository.ProductFileRepository;
+import com.Fabrikka.loadProduct.service.ImportFormat;
+import com.Fabrikka.loadProduct.storage.ProductFileStore;
 import org.springframework.batch.core.*;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
@@ -16,14 +18,14 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
-import java.util.Objects;
 
 /**
  * REST controller for handling product file uploads and triggering batch jobs.
  * <p>
- * Exposes an endpoint to upload Excel files, saves file metadata to the database,
- * and starts a Spring Batch job to process the uploaded file.
+ * Exposes an endpoint to upload product files (XLSX, CSV or NDJSON), streams the content into the {@link ProductFileStore},
+ * saves file metadata to the database, and starts a Spring Batch job to process the uploaded file.
  */
 @RestController
 @RequestMapping("/productFile")
@@ -31,13 +33,17 @@ public class ProductFileController {
 
     private final ProductFileRepository productFileRepository;
 
+    private final ProductFileStore productFileStore;
+
     /**
-     * Constructs the controller with the required repository.
+     * Constructs the controller with the required repository and file store.
      *
      * @param productFileRepository repository for managing ProductFile entities
+     * @param productFileStore      store the uploaded content is streamed into
      */
-    public ProductFileController(ProductFileRepository productFileRepository) {
+    public ProductFileController(ProductFileRepository productFileRepository, ProductFileStore productFileStore) {
         this.productFileRepository = productFileRepository;
+        this.productFileStore = productFileStore;
     }
 
     @Autowired
@@ -49,9 +55,9 @@ public class ProductFileController {
     /**
      * Handles file upload requests, saves the file, and triggers the batch import job.
      *
-     * @param file the uploaded Excel file
+     * @param file the uploaded product file; the format is detected from its content type or extension
      * @return HTTP response indicating the result of the operation
-     * @throws IOException if file reading fails
+     * @throws IOException if the file cannot be streamed to the store
      * @throws JobInstanceAlreadyCompleteException if the job instance is already complete
      * @throws JobExecutionAlreadyRunningException if the job is already running
      * @throws JobParametersInvalidException if job parameters are invalid
@@ -63,13 +69,19 @@ public class ProductFileController {
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().body("File is empty");
         }
-        if (!Objects.requireNonNull(file.getOriginalFilename()).endsWith(".xlsx")) {
-            return ResponseEntity.badRequest().body("Invalid file type. Only Excel files are allowed.");
+        ImportFormat format = ImportFormat.detect(file.getContentType(), file.getOriginalFilename());
+        if (format == null) {
+            return ResponseEntity.badRequest().body("Invalid file type. Only Excel (.xlsx), CSV and NDJSON files are allowed.");
         }
         ProductFile productFile = new ProductFile();
         productFile.setFileName(file.getOriginalFilename());
         productFile.setUploadedAt(LocalDateTime.now());
-        productFile.setFileData(file.getBytes());
+        productFile.setContentType(file.getContentType());
+        productFile.setFormat(format.name());
+        productFile.setSizeBytes(file.getSize());
+        try (InputStream content = file.getInputStream()) {
+            productFile.setStorageKey(productFileStore.store(file.getOriginalFilename(), content, file.getSize()));
+        }
         productFile.setStatus("PENDING");
 
         ProductFile savedFile = productFileRepository.save(productFile);
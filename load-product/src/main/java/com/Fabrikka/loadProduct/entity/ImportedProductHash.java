@@ -0,0 +1,26 @@
+package com.Fabrikka.loadProduct.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Content hash of the last successfully imported version of a product, keyed by its normalized name.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportedProductHash {
+
+    @Id
+    private String productKey;
+    private long contentHash;
+    private LocalDateTime importedAt;
+}
@@ -17,8 +17,12 @@ public class ProductFile {
     private String fileName;
     private LocalDateTime uploadedAt;
     private String status ;
-    @Lob
-    private byte[] fileData;
+    // Key of the content in the ProductFileStore; the bytes themselves are not kept in the database
+    private String storageKey;
+    private String contentType;
+    // ImportFormat detected at upload; null for files stored before formats were recorded (XLSX)
+    private String format;
+    private Long sizeBytes;
 
 
 }
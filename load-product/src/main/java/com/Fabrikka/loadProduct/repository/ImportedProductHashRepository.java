@@ -0,0 +1,9 @@
+package com.Fabrikka.loadProduct.repository;
+
+import com.Fabrikka.loadProduct.entity.ImportedProductHash;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportedProductHashRepository extends JpaRepository<ImportedProductHash, String> {
+}
@@ -0,0 +1,120 @@
+package com.Fabrikka.loadProduct.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.policy.CompletionPolicySupport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Completion policy whose chunk size follows the measured write latency of {@link ProductItemWriter}.
+ * <p>
+ * Every write attempt is reported through {@link #recordWrite}. The per-item latency is smoothed with an
+ * exponential moving average. While it holds steady or improves, the chunk size grows by a quarter. When it
+ * gets worse by more than {@link #TOLERANCE} the size shrinks by a quarter, and a failed write halves it.
+ * The size stays within {@code product.import.chunk.min-size} and {@code max-size}. A chunk keeps the size
+ * it started with.
+ * <p>
+ * The current size and the write throughput (items per second) are exported as
+ * {@code product.import.chunk.size} and {@code product.import.throughput}.
+ */
+@Component
+public class AdaptiveChunkSizePolicy extends CompletionPolicySupport {
+
+    private static final double TOLERANCE = 0.10;
+
+    private static final double SMOOTHING = 0.3;
+
+    private static final long THROUGHPUT_WINDOW_NANOS = 1_000_000_000L;
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    private volatile int chunkSize;
+
+    private volatile double throughput;
+
+    // Guarded by this
+    private double smoothedLatency = Double.NaN;
+
+    private long windowStart = System.nanoTime();
+
+    private long windowItems;
+
+    public AdaptiveChunkSizePolicy(MeterRegistry meterRegistry,
+                                   @Value("${product.import.chunk.min-size:10}") int minSize,
+                                   @Value("${product.import.chunk.max-size:1000}") int maxSize,
+                                   @Value("${product.import.chunk.initial-size:100}") int initialSize) {
+        this.minSize = minSize;
+        this.maxSize = Math.max(minSize, maxSize);
+        this.chunkSize = clamp(initialSize);
+        Gauge.builder("product.import.chunk.size", this, policy -> policy.chunkSize)
+                .description("Items per chunk chosen by the adaptive completion policy")
+                .register(meterRegistry);
+        Gauge.builder("product.import.throughput", this, policy -> policy.throughput)
+                .description("Products written to product-service per second")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext parent) {
+        return new ChunkSizeContext(parent, chunkSize);
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        return context.getStartedCount() >= ((ChunkSizeContext) context).size;
+    }
+
+    /**
+     * Reports one write attempt of {@code items} products that took {@code elapsedNanos}.
+     */
+    public synchronized void recordWrite(int items, long elapsedNanos, boolean success) {
+        if (!success) {
+            chunkSize = clamp(chunkSize / 2);
+            smoothedLatency = Double.NaN;
+            return;
+        }
+        updateThroughput(items);
+        double latency = (double) elapsedNanos / Math.max(1, items);
+        double previous = smoothedLatency;
+        smoothedLatency = Double.isNaN(previous) ? latency : SMOOTHING * latency + (1 - SMOOTHING) * previous;
+        if (Double.isNaN(previous) || smoothedLatency <= previous * (1 + TOLERANCE)) {
+            chunkSize = clamp(chunkSize + Math.max(1, chunkSize / 4));
+        } else {
+            chunkSize = clamp(chunkSize - Math.max(1, chunkSize / 4));
+        }
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    private void updateThroughput(int items) {
+        windowItems += items;
+        long now = System.nanoTime();
+        long elapsed = now - windowStart;
+        if (elapsed >= THROUGHPUT_WINDOW_NANOS) {
+            throughput = windowItems * 1_000_000_000.0 / elapsed;
+            windowItems = 0;
+            windowStart = now;
+        }
+    }
+
+    private int clamp(int size) {
+        return Math.max(minSize, Math.min(maxSize, size));
+    }
+
+    private static final class ChunkSizeContext extends RepeatContextSupport {
+
+        private final int size;
+
+        ChunkSizeContext(RepeatContext parent, int size) {
+            super(parent);
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.Fabrikka.loadProduct.service;
+
+import com.Fabrikka.loadProduct.entity.ProductFile;
+import com.Fabrikka.loadProduct.repository.ProductFileRepository;
+import com.Fabrikka.loadProduct.storage.LocalFile;
+import com.Fabrikka.loadProduct.storage.ProductFileStore;
+import com.fabrikka.common.ProductDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Base for line-oriented text readers (CSV, NDJSON) that tokenize straight out of one reused byte buffer.
+ * <p>
+ * The stored file is read through a {@link FileChannel} into the buffer. Subclasses find record boundaries
+ * and parse fields on the raw UTF-8 bytes between {@link #recordStart} and {@link #recordEnd}, so only the
+ * field values that are kept are ever decoded into strings. A record longer than the buffer grows it, up to
+ * {@code product.import.max-record-bytes}; a longer record (typically an unbalanced quote swallowing the rest
+ * of the file) fails the read, since no later record boundary could be trusted. A leading UTF-8 byte order
+ * mark is dropped. Blank lines are skipped.
+ * <p>
+ * The file offset of the next record is saved in the step's {@link ExecutionContext}, so a restart seeks
+ * straight back to it. Like {@link ExcelReader}, a reader can be limited to the data rows {@code [startRow, endRow)}.
+ * Given the byte offset of {@code startRow}, recorded by the partitioner's counting pass, the reader seeks to it
+ * instead of scanning every earlier row.
+ */
+public abstract class BufferedRecordReader implements ProductRowReader {
+
+    static final String OFFSET_KEY = "record.reader.offset";
+
+    static final String ROWS_READ_KEY = "record.reader.rows.read";
+
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    Logger logger = LoggerFactory.getLogger(getClass());
+
+    protected final Long fileId;
+
+    private final ProductFileRepository productFileRepository;
+
+    private final ProductFileStore productFileStore;
+
+    private final long startRow;
+
+    private final long endRow;
+
+    private final Long startOffset;
+
+    private final int bufferSize;
+
+    private final int maxRecordBytes;
+
+    private LocalFile localFile;
+
+    private FileChannel channel;
+
+    protected byte[] buffer;
+
+    // Bounds of the current record's content in the buffer, without the line terminator
+    protected int recordStart;
+
+    protected int recordEnd;
+
+    private int position;
+
+    private int limit;
+
+    private long bufferOffset;
+
+    private boolean endOfFile;
+
+    private long rowsRead;
+
+    protected BufferedRecordReader(Long fileId, ProductFileRepository productFileRepository, ProductFileStore productFileStore,
+                                   Long startRow, Long endRow, Long startOffset, int bufferSize, int maxRecordBytes) {
+        this.fileId = fileId;
+        this.productFileRepository = productFileRepository;
+        this.productFileStore = productFileStore;
+        this.startRow = startRow != null ? startRow : 0L;
+        this.endRow = endRow != null ? endRow : Long.MAX_VALUE;
+        this.startOffset = startOffset;
+        this.bufferSize = bufferSize;
+        this.maxRecordBytes = maxRecordBytes;
+    }
+
+    /**
+     * Returns the index just past the terminator of the record starting at {@code from}, or -1 if the
+     * buffer ends before the record does. At end of file the remaining bytes form the last record.
+     */
+    protected abstract int findRecordEnd(byte[] buffer, int from, int limit, boolean endOfFile);
+
+    /**
+     * Called once after the file is opened, before any data row; reads the header if the format has one.
+     */
+    protected abstract void readHeader() throws IOException;
+
+    /**
+     * Maps the current record to a product.
+     *
+     * @param row data row number, for error messages
+     */
+    protected abstract ProductDto mapRecord(long row) throws Exception;
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        ProductFile productFile = productFileRepository.findById(fileId)
+                .orElseThrow(() -> new IllegalArgumentException("File not found for ID: " + fileId));
+        if (productFile.getStorageKey() == null) {
+            throw new IllegalArgumentException("File data is empty for file ID: " + fileId);
+        }
+        try {
+            localFile = productFileStore.localFile(productFile.getStorageKey());
+            channel = FileChannel.open(localFile.path(), StandardOpenOption.READ);
+            buffer = new byte[bufferSize];
+            skipByteOrderMark();
+            readHeader();
+            if (executionContext.containsKey(OFFSET_KEY)) {
+                rowsRead = executionContext.getLong(ROWS_READ_KEY);
+                seek(executionContext.getLong(OFFSET_KEY));
+                logger.info("Restarting file {} at data row {}", fileId, startRow + rowsRead);
+            } else if (startOffset != null) {
+                seek(startOffset);
+            } else {
+                long skipped = 0;
+                while (skipped < startRow && nextRecord()) {
+                    skipped++;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            close();
+            throw e;
+        } catch (Exception e) {
+            close();
+            throw new ItemStreamException("Could not open file ID: " + fileId, e);
+        }
+    }
+
+    @Override
+    public ProductDto read() throws Exception {
+        if (startRow + rowsRead >= endRow || !nextRecord()) {
+            return null; // No more rows to read
+        }
+        rowsRead++;
+        return mapRecord(startRow + rowsRead);
+    }
+
+    @Override
+    public long countRemainingRows() {
+        return countRemainingRows(null);
+    }
+
+    @Override
+    public long countRemainingRows(RowOffsetIndex index) {
+        long count = 0;
+        try {
+            while (nextRecord()) {
+                if (index != null) {
+                    index.record(count, bufferOffset + recordStart);
+                }
+                count++;
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not read file ID: " + fileId, e);
+        }
+        return count;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(OFFSET_KEY, bufferOffset + position);
+        executionContext.putLong(ROWS_READ_KEY, rowsRead);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            if (localFile != null) {
+                localFile.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not close file ID: {}, exception:{} ", fileId, e.getMessage());
+        } finally {
+            channel = null;
+            localFile = null;
+            buffer = null;
+        }
+    }
+
+    /**
+     * Advances to the next non-blank record and sets {@link #recordStart} and {@link #recordEnd}.
+     *
+     * @return false at end of file
+     */
+    protected final boolean nextRecord() throws IOException {
+        while (true) {
+            if (position == limit && endOfFile) {
+                return false;
+            }
+            int end = position < limit ? findRecordEnd(buffer, position, limit, endOfFile) : -1;
+            if (end < 0 && limit - position < maxRecordBytes) {
+                fill();
+                continue;
+            }
+            if (end < 0 || end - position > maxRecordBytes) {
+                throw new ItemStreamException("Record at byte " + (bufferOffset + position) + " of file ID: " + fileId
+                        + " is longer than " + maxRecordBytes + " bytes (product.import.max-record-bytes);"
+                        + " check the file for an unbalanced quote");
+            }
+            int contentEnd = end;
+            while (contentEnd > position && (buffer[contentEnd - 1] == '\n' || buffer[contentEnd - 1] == '\r')) {
+                contentEnd--;
+            }
+            recordStart = position;
+            recordEnd = contentEnd;
+            position = end;
+            if (recordEnd > recordStart) {
+                return true;
+            }
+        }
+    }
+
+    private void fill() throws IOException {
+        if (position > 0) {
+            // Move the partial record to the front so the buffer never holds more than one record's tail
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            bufferOffset += position;
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = channel.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit));
+        if (read < 0) {
+            endOfFile = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private void skipByteOrderMark() throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(UTF8_BOM.length);
+        int read = 0;
+        while (head.hasRemaining() && read >= 0) {
+            read = channel.read(head);
+        }
+        seek(Arrays.equals(head.array(), 0, head.position(), UTF8_BOM, 0, UTF8_BOM.length) ? UTF8_BOM.length : 0);
+    }
+
+    private void seek(long offset) throws IOException {
+        channel.position(offset);
+        bufferOffset = offset;
+        position = 0;
+        limit = 0;
+        endOfFile = false;
+    }
+}
@@ -0,0 +1,146 @@
+package com.Fabrikka.loadProduct.service;
+
+import com.Fabrikka.loadProduct.repository.ProductFileRepository;
+import com.Fabrikka.loadProduct.storage.ProductFileStore;
+import com.fabrikka.common.ProductDto;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming CSV reader (RFC 4180 quoting: fields may be wrapped in double quotes, which may contain the
+ * delimiter, line breaks and doubled quotes). A quote only opens a quoted field as the field's first byte;
+ * anywhere else, as in {@code 5" screen}, it is an ordinary character. Record boundaries and field splitting
+ * follow that same rule. The first record is the header, used to resolve the {@link ProductColumnMapping}.
+ * Delimiter, quote and line breaks are ASCII, so they are matched on the raw UTF-8 bytes. Only mapped fields
+ * are decoded, and splitting stops after the last mapped column.
+ */
+public class CsvProductReader extends BufferedRecordReader {
+
+    private static final byte QUOTE = '"';
+
+    private final ProductColumnMapping columnMapping;
+
+    private final byte delimiter;
+
+    private int[] columns;
+
+    private boolean[] mapped;
+
+    public CsvProductReader(Long fileId, ProductFileRepository productFileRepository, ProductFileStore productFileStore,
+                            ProductColumnMapping columnMapping, char delimiter, Long startRow, Long endRow,
+                            Long startOffset, int bufferSize, int maxRecordBytes) {
+        super(fileId, productFileRepository, productFileStore, startRow, endRow, startOffset, bufferSize, maxRecordBytes);
+        this.columnMapping = columnMapping;
+        this.delimiter = (byte) delimiter;
+    }
+
+    @Override
+    protected void readHeader() throws IOException {
+        // An empty file has no header and no rows; read() then simply ends
+        if (nextRecord()) {
+            columns = columnMapping.resolveColumns(fields(null));
+            mapped = new boolean[Arrays.stream(columns).max().orElse(-1) + 1];
+            for (int column : columns) {
+                mapped[column] = true;
+            }
+        }
+    }
+
+    @Override
+    protected int findRecordEnd(byte[] buffer, int from, int limit, boolean endOfFile) {
+        boolean fieldStart = true;
+        boolean quoted = false;
+        for (int i = from; i < limit; i++) {
+            byte b = buffer[i];
+            if (quoted) {
+                if (b == QUOTE) {
+                    if (i + 1 == limit && !endOfFile) {
+                        return -1; // Cannot tell a doubled quote from a closing one yet
+                    }
+                    if (i + 1 < limit && buffer[i + 1] == QUOTE) {
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                }
+            } else if (b == '\n') {
+                return i + 1;
+            } else if (b == delimiter) {
+                fieldStart = true;
+            } else {
+                quoted = fieldStart && b == QUOTE;
+                fieldStart = false;
+            }
+        }
+        return endOfFile ? limit : -1;
+    }
+
+    @Override
+    protected ProductDto mapRecord(long row) {
+        List<String> fields = fields(mapped);
+        String[] values = new String[ProductColumnMapping.FIELD_COUNT];
+        for (int field = 0; field < values.length; field++) {
+            values[field] = columns[field] < fields.size() ? fields.get(columns[field]) : null;
+        }
+        return columnMapping.toProduct(values, row);
+    }
+
+    /**
+     * Splits the current record into fields; empty fields and fields not in {@code wanted} are {@code null}.
+     * With {@code wanted} set, fields past its length are not split at all; {@code null} decodes every field.
+     */
+    private List<String> fields(boolean[] wanted) {
+        List<String> fields = new ArrayList<>(ProductColumnMapping.FIELD_COUNT);
+        int i = recordStart;
+        while (true) {
+            if (wanted != null && fields.size() == wanted.length) {
+                return fields;
+            }
+            boolean decode = wanted == null || wanted[fields.size()];
+            if (i < recordEnd && buffer[i] == QUOTE) {
+                int end = i + 1;
+                boolean escaped = false;
+                while (end < recordEnd) {
+                    if (buffer[end] == QUOTE) {
+                        if (end + 1 < recordEnd && buffer[end + 1] == QUOTE) {
+                            escaped = true;
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                String value = decode ? decode(i + 1, end) : null;
+                fields.add(escaped && value != null ? value.replace("\"\"", "\"") : value);
+                i = end + 1;
+                while (i < recordEnd && buffer[i] != delimiter) {
+                    i++;
+                }
+            } else {
+                int end = i;
+                while (end < recordEnd && buffer[end] != delimiter) {
+                    end++;
+                }
+                fields.add(decode ? decode(i, end) : null);
+                i = end;
+            }
+            if (i >= recordEnd) {
+                return fields;
+            }
+            i++; // Skip the delimiter
+            if (i == recordEnd) {
+                fields.add(null); // Trailing delimiter: the last field is empty
+                return fields;
+            }
+        }
+    }
+
+    private String decode(int from, int to) {
+        return to > from ? new String(buffer, from, to - from, StandardCharsets.UTF_8) : null;
+    }
+}
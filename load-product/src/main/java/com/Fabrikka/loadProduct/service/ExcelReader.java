@@ -2,69 +2,253 @@ package com.Fabrikka.loadProduct.service;
 
 import com.Fabrikka.loadProduct.entity.ProductFile;
 import com.Fabrikka.loadProduct.repository.ProductFileRepository;
-import com.fabrikka.common.CategoryDto;
-import com.fabrikka.common.InventoryDto;
+import com.Fabrikka.loadProduct.storage.LocalFile;
+import com.Fabrikka.loadProduct.storage.ProductFileStore;
 import com.fabrikka.common.ProductDto;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.batch.item.ItemReader;
-import org.springframework.batch.item.NonTransientResourceException;
-import org.springframework.batch.item.ParseException;
-import org.springframework.batch.item.UnexpectedInputException;
-import org.springframework.beans.factory.annotation.Value;
-
-import java.io.ByteArrayInputStream;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.math.BigDecimal;
-import java.util.Iterator;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Streaming reader for the first sheet of an uploaded .xlsx file.
+ * <p>
+ * Instead of building a {@code XSSFWorkbook} DOM, the sheet XML is pulled one {@code <row>} at a time
+ * with StAX through {@link XSSFReader}, so memory stays constant in the number of rows (only the shared
+ * strings table is held). The first row is the header, used to resolve the {@link ProductColumnMapping}.
+ * <p>
+ * The workbook is read from the {@link ProductFileStore}; OPCPackage needs random access, so stores that
+ * are not on local disk hand out a temporary copy that is removed on close.
+ * <p>
+ * A reader can be limited to the data rows {@code [startRow, endRow)} so a partitioned step can split one
+ * sheet between workers. The sheet XML can only be read sequentially, so rows before {@code startRow} are
+ * still parsed, just not mapped.
+ * <p>
+ * The number of data rows handed out is saved in the step's {@link ExecutionContext}; on restart the
+ * reader skips that many rows without mapping them and continues with the next one.
+ */
+public class ExcelReader implements ProductRowReader {
 
-public class ExcelReader implements ItemReader<ProductDto> {
+    static final String ROWS_READ_KEY = "excel.reader.rows.read";
 
-    private final Iterator<Row> rowIterator;
+    Logger logger = LoggerFactory.getLogger(ExcelReader.class);
 
-    public ExcelReader(@Value("#{jobParameters['fileId']}") Long fileId, ProductFileRepository productFileRepository) throws IOException {
-        Optional<ProductFile> productFile = productFileRepository.findById(fileId);
-        if (productFile.isEmpty()) {
-            throw new IllegalArgumentException("File not found for ID: " + fileId);
-        }
-        InputStream inputStream = productFile.get().getFileData() != null ?
-                new ByteArrayInputStream(productFile.get().getFileData()) : null;
+    private final Long fileId;
+
+    private final ProductFileRepository productFileRepository;
+
+    private final ProductFileStore productFileStore;
+
+    private final ProductColumnMapping columnMapping;
+
+    private final long startRow;
+
+    private final long endRow;
+
+    private LocalFile workbookFile;
+
+    private OPCPackage workbook;
+
+    private InputStream sheetStream;
+
+    private XMLStreamReader sheetReader;
 
-        if (inputStream==null){
+    private ReadOnlySharedStringsTable sharedStrings;
+
+    private int[] columns;
+
+    private long rowsRead;
+
+    /**
+     * Creates a reader for the zero-based data rows {@code [startRow, endRow)}; {@code null} bounds mean the whole sheet.
+     */
+    public ExcelReader(Long fileId, ProductFileRepository productFileRepository, ProductFileStore productFileStore,
+                       ProductColumnMapping columnMapping, Long startRow, Long endRow) {
+        this.fileId = fileId;
+        this.productFileRepository = productFileRepository;
+        this.productFileStore = productFileStore;
+        this.columnMapping = columnMapping;
+        this.startRow = startRow != null ? startRow : 0L;
+        this.endRow = endRow != null ? endRow : Long.MAX_VALUE;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        ProductFile productFile = productFileRepository.findById(fileId)
+                .orElseThrow(() -> new IllegalArgumentException("File not found for ID: " + fileId));
+        if (productFile.getStorageKey() == null) {
             throw new IllegalArgumentException("File data is empty for file ID: " + fileId);
         }
-        Workbook workbook = new XSSFWorkbook(inputStream);
-        Sheet sheet = workbook.getSheetAt(0);
-        this.rowIterator = sheet.rowIterator();
-        if(rowIterator.hasNext())
-            rowIterator.next(); // Skip header row if present
+        try {
+            // OPCPackage reads a File through random zip access; opened from a stream it would inflate every part into memory
+            workbookFile = productFileStore.localFile(productFile.getStorageKey());
+            workbook = OPCPackage.open(workbookFile.path().toFile(), PackageAccess.READ);
+            XSSFReader xssfReader = new XSSFReader(workbook);
+            sharedStrings = new ReadOnlySharedStringsTable(workbook);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IllegalArgumentException("Workbook has no sheets for file ID: " + fileId);
+            }
+            sheetStream = sheets.next();
+            sheetReader = XMLHelper.newXMLInputFactory().createXMLStreamReader(sheetStream);
 
+            // An empty sheet has no header and no rows; read() then simply ends
+            List<String> header = nextRow();
+            columns = header != null ? columnMapping.resolveColumns(header) : null;
+            long skipped = 0;
+            while (skipped < startRow && nextRow() != null) {
+                skipped++;
+            }
+            long alreadyRead = executionContext.getLong(ROWS_READ_KEY, 0L);
+            while (rowsRead < alreadyRead && nextRow() != null) {
+                rowsRead++;
+            }
+            if (alreadyRead > 0) {
+                logger.info("Restarting file {} at data row {}", fileId, startRow + rowsRead);
+            }
+        } catch (IllegalArgumentException e) {
+            close();
+            throw e;
+        } catch (Exception e) {
+            close();
+            throw new ItemStreamException("Could not open workbook for file ID: " + fileId, e);
+        }
     }
+
     @Override
-    public ProductDto read() throws Exception, UnexpectedInputException,
-            ParseException, NonTransientResourceException {
-        if (rowIterator == null || !rowIterator.hasNext()) {
+    public ProductDto read() throws Exception {
+        if (startRow + rowsRead >= endRow) {
+            return null; // End of this reader's range
+        }
+        List<String> cells = nextRow();
+        if (cells == null) {
             return null; // No more rows to read
         }
-        Row row = rowIterator.next();
-        ProductDto productDto = new ProductDto();
-        productDto.setName(row.getCell(0).getStringCellValue());
-        productDto.setDescription(row.getCell(1).getStringCellValue());
-        productDto.setPrice(row.getCell(2).getNumericCellValue() > 0 ?
-                BigDecimal.valueOf(row.getCell(2).getNumericCellValue()) : null);
-        CategoryDto categoryDto = new CategoryDto();
-        categoryDto.setName(row.getCell(3).getStringCellValue());
-        productDto.setCategory(categoryDto);
-        InventoryDto inventoryDto = new InventoryDto();
-        inventoryDto.setAvailableStock((int) row.getCell(4).getNumericCellValue());
-        productDto.setInventory(inventoryDto);
-        productDto.setImageUrl(row.getCell(5).getStringCellValue());
-        return productDto;
+        rowsRead++;
+        String[] values = new String[ProductColumnMapping.FIELD_COUNT];
+        for (int field = 0; field < values.length; field++) {
+            values[field] = cell(cells, columns[field]);
+        }
+        return columnMapping.toProduct(values, startRow + rowsRead);
+    }
+
+    @Override
+    public long countRemainingRows() {
+        long count = 0;
+        try {
+            while (nextRow() != null) {
+                count++;
+            }
+        } catch (XMLStreamException e) {
+            throw new ItemStreamException("Could not read workbook for file ID: " + fileId, e);
+        }
+        return count;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(ROWS_READ_KEY, rowsRead);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        try {
+            if (sheetReader != null) {
+                sheetReader.close();
+            }
+            if (sheetStream != null) {
+                sheetStream.close();
+            }
+            if (workbook != null) {
+                workbook.revert();
+            }
+            if (workbookFile != null) {
+                workbookFile.close();
+            }
+        } catch (XMLStreamException | IOException e) {
+            logger.warn("Could not close workbook for file ID: {}, exception:{} ", fileId, e.getMessage());
+        } finally {
+            sheetReader = null;
+            sheetStream = null;
+            workbook = null;
+            workbookFile = null;
+        }
+    }
+
+    /**
+     * Pulls the next {@code <row>} from the sheet and returns its cell values indexed by column,
+     * with {@code null} for empty cells, or {@code null} at the end of the sheet.
+     */
+    private List<String> nextRow() throws XMLStreamException {
+        List<String> cells = null;
+        int column = -1;
+        String cellType = null;
+        StringBuilder value = new StringBuilder();
+        while (sheetReader.hasNext()) {
+            int event = sheetReader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (sheetReader.getLocalName()) {
+                    case "row" -> cells = new ArrayList<>();
+                    case "c" -> {
+                        String reference = sheetReader.getAttributeValue(null, "r");
+                        column = reference != null ? columnIndex(reference) : column + 1;
+                        cellType = sheetReader.getAttributeValue(null, "t");
+                        value.setLength(0);
+                    }
+                    // <v> holds the value; <t> holds inline string text, possibly split across rich-text runs
+                    case "v", "t" -> value.append(sheetReader.getElementText());
+                    default -> { }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if ("c".equals(sheetReader.getLocalName()) && cells != null) {
+                    while (cells.size() <= column) {
+                        cells.add(null);
+                    }
+                    cells.set(column, cellValue(cellType, value.toString()));
+                } else if ("row".equals(sheetReader.getLocalName())) {
+                    return cells;
+                }
+            }
+        }
+        return null;
     }
 
+    private String cellValue(String cellType, String raw) {
+        if (raw.isEmpty()) {
+            return null;
+        }
+        if ("s".equals(cellType)) {
+            return sharedStrings.getItemAt(Integer.parseInt(raw)).getString();
+        }
+        if ("b".equals(cellType)) {
+            return "1".equals(raw) ? "true" : "false";
+        }
+        return raw;
+    }
+
+    // "AB12" -> 27
+    private static int columnIndex(String reference) {
+        int column = 0;
+        for (int i = 0; i < reference.length() && Character.isLetter(reference.charAt(i)); i++) {
+            column = column * 26 + (reference.charAt(i) - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private static String cell(List<String> cells, int column) {
+        return column < cells.size() ? cells.get(column) : null;
+    }
 }
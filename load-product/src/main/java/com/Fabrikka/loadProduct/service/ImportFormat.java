@@ -0,0 +1,44 @@
+package com.Fabrikka.loadProduct.service;
+
+import java.util.Locale;
+
+/**
+ * File formats accepted by the product import.
+ */
+public enum ImportFormat {
+
+    XLSX,
+    CSV,
+    NDJSON;
+
+    /**
+     * Detects the format from the upload's content type, falling back to the file extension when the
+     * content type is missing or generic (browsers often send {@code application/octet-stream}).
+     *
+     * @return the format, or {@code null} if neither identifies a supported one
+     */
+    public static ImportFormat detect(String contentType, String fileName) {
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (type.startsWith("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")) {
+            return XLSX;
+        }
+        if (type.startsWith("text/csv") || type.startsWith("application/csv")) {
+            return CSV;
+        }
+        if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")
+                || type.startsWith("application/x-jsonlines")) {
+            return NDJSON;
+        }
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".xlsx")) {
+            return XLSX;
+        }
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        return null;
+    }
+}
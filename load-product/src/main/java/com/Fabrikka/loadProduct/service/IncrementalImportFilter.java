@@ -0,0 +1,122 @@
+package com.Fabrikka.loadProduct.service;
+
+import com.Fabrikka.loadProduct.entity.ImportedProductHash;
+import com.Fabrikka.loadProduct.repository.ImportedProductHashRepository;
+import com.fabrikka.common.ProductDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Drops rows that have not changed since the last import.
+ * <p>
+ * A row is keyed by its product name with surrounding and repeated whitespace removed; that name is also
+ * what product-service upserts by. Its content hash is the first 64 bits of a SHA-256 over the normalized
+ * product fields. Stock is not part of it, as product-service only imports stock for new products. Hashes of
+ * imported rows are kept in {@link ImportedProductHash}, one small row per product, and are looked up one chunk
+ * at a time. A hash is only recorded after product-service accepted the row, so a failed row is sent again by
+ * the next import.
+ * <p>
+ * The hashes only describe what this service sent. A product edited in product-service afterwards is not
+ * restored by re-importing an unchanged file row; set {@code product.import.incremental=false} to send every row.
+ */
+@Component
+public class IncrementalImportFilter {
+
+    private static final char FIELD_SEPARATOR = '\u001F';
+
+    Logger logger = LoggerFactory.getLogger(IncrementalImportFilter.class);
+
+    private final ImportedProductHashRepository importedProductHashRepository;
+
+    private final boolean incremental;
+
+    public IncrementalImportFilter(ImportedProductHashRepository importedProductHashRepository,
+                                   @Value("${product.import.incremental:true}") boolean incremental) {
+        this.importedProductHashRepository = importedProductHashRepository;
+        this.incremental = incremental;
+    }
+
+    /**
+     * Normalizes product names in place and returns the rows that are new or changed. When a name
+     * repeats within the list, the last row wins.
+     */
+    public List<ProductDto> changed(List<? extends ProductDto> products) {
+        Map<String, ProductDto> byKey = new LinkedHashMap<>();
+        for (ProductDto product : products) {
+            String key = key(product);
+            if (key != null) {
+                product.setName(key);
+                byKey.remove(key);
+                byKey.put(key, product);
+            }
+        }
+        if (!incremental) {
+            return new ArrayList<>(byKey.values());
+        }
+        Map<String, Long> imported = importedProductHashRepository.findAllById(byKey.keySet()).stream()
+                .collect(Collectors.toMap(ImportedProductHash::getProductKey, ImportedProductHash::getContentHash));
+        return byKey.values().stream()
+                .filter(product -> {
+                    Long previous = imported.get(product.getName());
+                    return previous == null || previous != hash(product);
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Records the given rows as imported. Called once product-service has accepted them.
+     */
+    public void recordImported(List<ProductDto> products) {
+        if (!incremental) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            importedProductHashRepository.saveAll(products.stream()
+                    .map(product -> new ImportedProductHash(product.getName(), hash(product), now))
+                    .collect(Collectors.toList()));
+        } catch (Exception e) {
+            // Only costs a resend next time; product-service upserts by name
+            logger.warn("Could not record hashes for {} products, exception:{} ", products.size(), e.getMessage());
+        }
+    }
+
+    static String key(ProductDto product) {
+        String name = normalize(product.getName());
+        return name.isEmpty() ? null : name;
+    }
+
+    static long hash(ProductDto product) {
+        BigDecimal price = product.getPrice();
+        String row = String.join(String.valueOf(FIELD_SEPARATOR),
+                normalize(product.getName()),
+                normalize(product.getDescription()),
+                price != null ? price.stripTrailingZeros().toPlainString() : "",
+                product.getCategory() != null ? normalize(product.getCategory().getName()) : "",
+                normalize(product.getImageUrl()));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(row.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.strip().replaceAll("\\s+", " ");
+    }
+}
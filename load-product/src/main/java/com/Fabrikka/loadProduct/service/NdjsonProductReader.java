@@ -0,0 +1,62 @@
+package com.Fabrikka.loadProduct.service;
+
+import com.Fabrikka.loadProduct.repository.ProductFileRepository;
+import com.Fabrikka.loadProduct.storage.ProductFileStore;
+import com.fabrikka.common.ProductDto;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streaming reader for newline-delimited JSON, one product object per line. Each line is parsed by Jackson
+ * directly from the shared read buffer; fields are picked with {@link ProductColumnMapping#jsonFields()}.
+ */
+public class NdjsonProductReader extends BufferedRecordReader {
+
+    private final ObjectMapper objectMapper;
+
+    private final ProductColumnMapping columnMapping;
+
+    private final JsonPointer[] fields;
+
+    public NdjsonProductReader(Long fileId, ProductFileRepository productFileRepository, ProductFileStore productFileStore,
+                               ProductColumnMapping columnMapping, ObjectMapper objectMapper,
+                               Long startRow, Long endRow, Long startOffset, int bufferSize, int maxRecordBytes) {
+        super(fileId, productFileRepository, productFileStore, startRow, endRow, startOffset, bufferSize, maxRecordBytes);
+        this.objectMapper = objectMapper;
+        this.columnMapping = columnMapping;
+        String[] jsonFields = columnMapping.jsonFields();
+        this.fields = new JsonPointer[jsonFields.length];
+        for (int field = 0; field < jsonFields.length; field++) {
+            // A plain name addresses a top-level field; anything starting with '/' is a JSON pointer
+            String path = jsonFields[field].startsWith("/") ? jsonFields[field] : "/" + jsonFields[field];
+            fields[field] = JsonPointer.compile(path);
+        }
+    }
+
+    @Override
+    protected void readHeader() {
+        // NDJSON has no header
+    }
+
+    @Override
+    protected int findRecordEnd(byte[] buffer, int from, int limit, boolean endOfFile) {
+        for (int i = from; i < limit; i++) {
+            if (buffer[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return endOfFile ? limit : -1;
+    }
+
+    @Override
+    protected ProductDto mapRecord(long row) throws Exception {
+        JsonNode node = objectMapper.readTree(buffer, recordStart, recordEnd - recordStart);
+        String[] values = new String[ProductColumnMapping.FIELD_COUNT];
+        for (int field = 0; field < values.length; field++) {
+            JsonNode value = node.at(fields[field]);
+            values[field] = value.isMissingNode() || value.isNull() ? null : value.asText();
+        }
+        return columnMapping.toProduct(values, row);
+    }
+}
@@ -0,0 +1,113 @@
+package com.Fabrikka.loadProduct.service;
+
+import com.fabrikka.common.CategoryDto;
+import com.fabrikka.common.InventoryDto;
+import com.fabrikka.common.ProductDto;
+import org.springframework.batch.item.ParseException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Where each product field is found in an import row, and how a row's values become a {@link ProductDto}.
+ * <p>
+ * For XLSX and CSV, {@code product.import.columns.*} holds either a zero-based column index or a header name
+ * (matched case-insensitively against the first row). The defaults are the historical spreadsheet layout:
+ * name, description, price, category, stock, image URL. For NDJSON, {@code product.import.json-fields.*}
+ * holds a top-level field name or a JSON pointer such as {@code /category/name}.
+ */
+@Component
+public class ProductColumnMapping {
+
+    static final int NAME = 0;
+    static final int DESCRIPTION = 1;
+    static final int PRICE = 2;
+    static final int CATEGORY = 3;
+    static final int STOCK = 4;
+    static final int IMAGE_URL = 5;
+    static final int FIELD_COUNT = 6;
+
+    private static final String[] FIELD_NAMES = {"name", "description", "price", "category", "stock", "image URL"};
+
+    private final String[] columns;
+
+    private final String[] jsonFields;
+
+    public ProductColumnMapping(@Value("${product.import.columns.name:0}") String nameColumn,
+                                @Value("${product.import.columns.description:1}") String descriptionColumn,
+                                @Value("${product.import.columns.price:2}") String priceColumn,
+                                @Value("${product.import.columns.category:3}") String categoryColumn,
+                                @Value("${product.import.columns.stock:4}") String stockColumn,
+                                @Value("${product.import.columns.image-url:5}") String imageUrlColumn,
+                                @Value("${product.import.json-fields.name:name}") String nameField,
+                                @Value("${product.import.json-fields.description:description}") String descriptionField,
+                                @Value("${product.import.json-fields.price:price}") String priceField,
+                                @Value("${product.import.json-fields.category:category}") String categoryField,
+                                @Value("${product.import.json-fields.stock:stock}") String stockField,
+                                @Value("${product.import.json-fields.image-url:imageUrl}") String imageUrlField) {
+        this.columns = new String[]{nameColumn, descriptionColumn, priceColumn, categoryColumn, stockColumn, imageUrlColumn};
+        this.jsonFields = new String[]{nameField, descriptionField, priceField, categoryField, stockField, imageUrlField};
+    }
+
+    /**
+     * Resolves the configured columns against a header row, returning one column index per field.
+     */
+    public int[] resolveColumns(List<String> header) {
+        int[] indexes = new int[FIELD_COUNT];
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            String column = columns[field].trim();
+            if (column.chars().allMatch(Character::isDigit)) {
+                indexes[field] = Integer.parseInt(column);
+                continue;
+            }
+            indexes[field] = -1;
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i) != null && header.get(i).trim().toLowerCase(Locale.ROOT).equals(column.toLowerCase(Locale.ROOT))) {
+                    indexes[field] = i;
+                    break;
+                }
+            }
+            if (indexes[field] < 0) {
+                throw new IllegalArgumentException("Column '" + column + "' not found in header " + header);
+            }
+        }
+        return indexes;
+    }
+
+    public String[] jsonFields() {
+        return jsonFields.clone();
+    }
+
+    /**
+     * Builds a product from values in field order. Price and stock are required; a price of zero or less
+     * is stored as no price.
+     *
+     * @param row data row number, for error messages
+     */
+    public ProductDto toProduct(String[] values, long row) {
+        ProductDto productDto = new ProductDto();
+        productDto.setName(values[NAME]);
+        productDto.setDescription(values[DESCRIPTION]);
+        BigDecimal price = new BigDecimal(required(values, PRICE, row).trim());
+        productDto.setPrice(price.compareTo(BigDecimal.ZERO) > 0 ? price : null);
+        CategoryDto categoryDto = new CategoryDto();
+        categoryDto.setName(values[CATEGORY]);
+        productDto.setCategory(categoryDto);
+        InventoryDto inventoryDto = new InventoryDto();
+        inventoryDto.setAvailableStock((int) Double.parseDouble(required(values, STOCK, row).trim()));
+        productDto.setInventory(inventoryDto);
+        productDto.setImageUrl(values[IMAGE_URL]);
+        return productDto;
+    }
+
+    private static String required(String[] values, int field, long row) {
+        String value = values[field];
+        if (value == null || value.isBlank()) {
+            throw new ParseException("Missing " + FIELD_NAMES[field] + " in data row " + row);
+        }
+        return value;
+    }
+}
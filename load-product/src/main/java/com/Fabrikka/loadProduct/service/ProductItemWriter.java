@@ -2,26 +2,210 @@ package com.Fabrikka.loadProduct.service;
 
 import com.Fabrikka.loadProduct.config.ProductClient;
 import com.fabrikka.common.ProductDto;
-import lombok.AllArgsConstructor;
+import feign.FeignException;
+import feign.RetryableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
 import org.springframework.batch.item.Chunk;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
+/**
+ * Pipelined writer that upserts chunks into product-service in the background.
+ * <p>
+ * Rows unchanged since the last import are dropped first by the {@link IncrementalImportFilter} and counted
+ * as filtered, so a repeated full-catalog upload only sends the delta.
+ * <p>
+ * {@link #write} hands the chunk to a sender thread and returns, so the step goes on reading and
+ * processing the next chunk during the HTTP round-trip. At most {@code product.import.write.max-in-flight}
+ * chunks are outstanding; once that many are in flight, {@code write} blocks until one completes.
+ * Transient failures (connection errors, 429 and 5xx) are retried up to {@code max-attempts} times with
+ * full-jitter exponential backoff. Successful attempts and transient failures are reported to the
+ * {@link AdaptiveChunkSizePolicy} as load signals; a rejected chunk (any other 4xx) says nothing about load
+ * and is not.
+ * <p>
+ * A chunk that still fails is counted as write skips on the step execution the next time the step thread
+ * calls {@code write}, or when the step ends, and the names of its products are logged. The step's skip limit
+ * counts these skips too; exceeding it in the final drain fails the step even though its last chunk has already
+ * committed. The writer is
+ * step-scoped, so every partition gets its own pipeline. A chunk is committed before its send completes,
+ * so a restart after a crash may resend up to {@code max-in-flight} chunks.
+ */
 @Component
-@AllArgsConstructor
-public class ProductItemWriter implements ItemWriter<ProductDto> {
+@StepScope
+public class ProductItemWriter implements ItemWriter<ProductDto>, StepExecutionListener {
+
+    Logger logger = LoggerFactory.getLogger(ProductItemWriter.class);
 
     private final ProductClient productClient;
 
+    private final AdaptiveChunkSizePolicy chunkSizePolicy;
+
+    private final IncrementalImportFilter incrementalImportFilter;
+
+    private final int maxInFlight;
+
+    private final int maxAttempts;
+
+    private final long backoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private final int skipLimit;
+
+    private final Queue<FailedChunk> failures = new ConcurrentLinkedQueue<>();
+
+    private StepExecution stepExecution;
+
+    private ExecutorService sender;
+
+    private Semaphore inFlight;
+
+    public ProductItemWriter(ProductClient productClient,
+                             AdaptiveChunkSizePolicy chunkSizePolicy,
+                             IncrementalImportFilter incrementalImportFilter,
+                             @Value("${product.import.write.max-in-flight:4}") int maxInFlight,
+                             @Value("${product.import.write.max-attempts:4}") int maxAttempts,
+                             @Value("${product.import.write.backoff-ms:200}") long backoffMillis,
+                             @Value("${product.import.write.max-backoff-ms:5000}") long maxBackoffMillis,
+                             @Value("${product.import.skip-limit:100}") int skipLimit) {
+        this.productClient = productClient;
+        this.chunkSizePolicy = chunkSizePolicy;
+        this.incrementalImportFilter = incrementalImportFilter;
+        this.maxInFlight = maxInFlight;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.skipLimit = skipLimit;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        this.stepExecution = stepExecution;
+        this.sender = Executors.newFixedThreadPool(maxInFlight);
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
     @Override
     public void write(Chunk<? extends ProductDto> chunk) throws Exception {
         if (chunk.isEmpty()) {
             return;
         }
-        List<? extends ProductDto> productDtoList = chunk.getItems();
-        String message = productClient.saveAll(new ArrayList<>(productDtoList)).getBody();
+        applyFailures();
+        // A new list, so the sender does not share the chunk's item list
+        List<ProductDto> products = incrementalImportFilter.changed(chunk.getItems());
+        int unchanged = chunk.size() - products.size();
+        if (unchanged > 0) {
+            // Counted as filtered rather than written, as if the processor had dropped them
+            stepExecution.setFilterCount(stepExecution.getFilterCount() + unchanged);
+            stepExecution.setWriteCount(stepExecution.getWriteCount() - unchanged);
+        }
+        if (products.isEmpty()) {
+            return;
+        }
+        inFlight.acquire();
+        try {
+            sender.execute(() -> send(products));
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        // Wait for every outstanding chunk before the step's counts are saved
+        inFlight.acquireUninterruptibly(maxInFlight);
+        inFlight.release(maxInFlight);
+        sender.shutdown();
+        try {
+            applyFailures();
+        } catch (SkipLimitExceededException e) {
+            // The step already counts as COMPLETED by now; the exit status alone would not stop the job
+            stepExecution.setStatus(BatchStatus.FAILED);
+            stepExecution.addFailureException(e);
+            return ExitStatus.FAILED.addExitDescription(e);
+        }
+        return null;
+    }
+
+    private void send(List<ProductDto> products) {
+        try {
+            sendWithRetry(products);
+        } catch (Exception e) {
+            failures.add(new FailedChunk(products.stream().map(ProductDto::getName).collect(Collectors.toList()), e));
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private void sendWithRetry(List<ProductDto> products) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            long started = System.nanoTime();
+            try {
+                productClient.upsertAll(products);
+                chunkSizePolicy.recordWrite(products.size(), System.nanoTime() - started, true);
+                incrementalImportFilter.recordImported(products);
+                return;
+            } catch (FeignException e) {
+                if (!isTransient(e)) {
+                    throw e;
+                }
+                chunkSizePolicy.recordWrite(products.size(), System.nanoTime() - started, false);
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                long ceiling = Math.min(maxBackoffMillis, backoffMillis << (attempt - 1));
+                long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+                logger.warn("Retrying {} products in {} ms after attempt {}, exception:{} ", products.size(), delay, attempt, e.getMessage());
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+    private static boolean isTransient(FeignException e) {
+        return e instanceof RetryableException || e.status() == 429 || e.status() >= 500;
+    }
+
+    /**
+     * Moves failed chunks into the step's skip counts. Only called on the step thread.
+     */
+    private void applyFailures() {
+        FailedChunk failed;
+        Exception lastCause = null;
+        while ((failed = failures.poll()) != null) {
+            logger.error("Skipping {} products that could not be written: {}, exception:{} ",
+                    failed.size(), String.join(", ", failed.names()), failed.cause().getMessage());
+            stepExecution.setWriteSkipCount(stepExecution.getWriteSkipCount() + failed.size());
+            stepExecution.setWriteCount(stepExecution.getWriteCount() - failed.size());
+            lastCause = failed.cause();
+        }
+        if (lastCause != null && stepExecution.getSkipCount() > skipLimit) {
+            throw new SkipLimitExceededException(skipLimit, lastCause);
+        }
+    }
+
+    private record FailedChunk(List<String> names, Exception cause) {
+
+        int size() {
+            return names.size();
+        }
     }
 }
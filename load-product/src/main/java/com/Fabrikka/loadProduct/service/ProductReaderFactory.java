@@ -0,0 +1,63 @@
+package com.Fabrikka.loadProduct.service;
+
+import com.Fabrikka.loadProduct.entity.ProductFile;
+import com.Fabrikka.loadProduct.repository.ProductFileRepository;
+import com.Fabrikka.loadProduct.storage.ProductFileStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the {@link ProductRowReader} for an uploaded file according to the format detected at upload.
+ * Files stored before formats were recorded are read as XLSX.
+ */
+@Component
+public class ProductReaderFactory {
+
+    private final ProductFileRepository productFileRepository;
+
+    private final ProductFileStore productFileStore;
+
+    private final ProductColumnMapping columnMapping;
+
+    private final ObjectMapper objectMapper;
+
+    private final char csvDelimiter;
+
+    private final int readBufferSize;
+
+    private final int maxRecordBytes;
+
+    public ProductReaderFactory(ProductFileRepository productFileRepository,
+                                ProductFileStore productFileStore,
+                                ProductColumnMapping columnMapping,
+                                ObjectMapper objectMapper,
+                                @Value("${product.import.csv.delimiter:,}") char csvDelimiter,
+                                @Value("${product.import.read-buffer-size:1048576}") int readBufferSize,
+                                @Value("${product.import.max-record-bytes:1048576}") int maxRecordBytes) {
+        this.productFileRepository = productFileRepository;
+        this.productFileStore = productFileStore;
+        this.columnMapping = columnMapping;
+        this.objectMapper = objectMapper;
+        this.csvDelimiter = csvDelimiter;
+        this.readBufferSize = readBufferSize;
+        this.maxRecordBytes = maxRecordBytes;
+    }
+
+    /**
+     * Creates a reader for the zero-based data rows {@code [startRow, endRow)}; {@code null} bounds mean the whole file.
+     * {@code startOffset}, if known, is the byte offset of {@code startRow}; only CSV and NDJSON readers can seek to it.
+     */
+    public ProductRowReader create(Long fileId, Long startRow, Long endRow, Long startOffset) {
+        ProductFile productFile = productFileRepository.findById(fileId)
+                .orElseThrow(() -> new IllegalArgumentException("File not found for ID: " + fileId));
+        ImportFormat format = productFile.getFormat() != null ? ImportFormat.valueOf(productFile.getFormat()) : ImportFormat.XLSX;
+        return switch (format) {
+            case XLSX -> new ExcelReader(fileId, productFileRepository, productFileStore, columnMapping, startRow, endRow);
+            case CSV -> new CsvProductReader(fileId, productFileRepository, productFileStore, columnMapping,
+                    csvDelimiter, startRow, endRow, startOffset, readBufferSize, maxRecordBytes);
+            case NDJSON -> new NdjsonProductReader(fileId, productFileRepository, productFileStore, columnMapping,
+                    objectMapper, startRow, endRow, startOffset, readBufferSize, maxRecordBytes);
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.Fabrikka.loadProduct.service;
+
+import com.fabrikka.common.ProductDto;
+import org.springframework.batch.item.ItemStreamReader;
+
+/**
+ * Restartable reader over the data rows of an uploaded product file, optionally limited to a row range.
+ */
+public interface ProductRowReader extends ItemStreamReader<ProductDto> {
+
+    /**
+     * Counts the data rows left after the current position without mapping them. Must be called after {@code open}.
+     */
+    long countRemainingRows();
+
+    /**
+     * Like {@link #countRemainingRows()}, and also reports to {@code index} the byte offset each row starts at,
+     * if the format allows a reader to seek to it. Rows are numbered from the current position.
+     */
+    default long countRemainingRows(RowOffsetIndex index) {
+        return countRemainingRows();
+    }
+}
@@ -0,0 +1,82 @@
+package com.Fabrikka.loadProduct.service;
+
+import java.util.Arrays;
+
+/**
+ * Sparse index of where data rows start in a file, filled during the partitioner's counting pass.
+ * <p>
+ * Every {@code stride}-th row is sampled, starting at row 0. When {@code capacity} samples are held, every
+ * other one is dropped and the stride doubles, so memory stays bounded whatever the file size while samples
+ * remain evenly spread: with {@code n} rows, neighbouring samples are at most {@code 2n / capacity} rows apart.
+ */
+public class RowOffsetIndex {
+
+    private final long[] rows;
+
+    private final long[] offsets;
+
+    private int size;
+
+    private long stride = 1;
+
+    public RowOffsetIndex(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        this.rows = new long[capacity];
+        this.offsets = new long[capacity];
+    }
+
+    /**
+     * Reports that zero-based data row {@code row} starts at byte {@code offset}. Rows must be reported in order.
+     */
+    public void record(long row, long offset) {
+        if (row % stride != 0) {
+            return;
+        }
+        if (size == rows.length) {
+            for (int i = 0; 2 * i < size; i++) {
+                rows[i] = rows[2 * i];
+                offsets[i] = offsets[2 * i];
+            }
+            size = (size + 1) / 2;
+            stride *= 2;
+            if (row % stride != 0) {
+                return;
+            }
+        }
+        rows[size] = row;
+        offsets[size] = offset;
+        size++;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the index of the sample whose row is closest to {@code row}; the index must not be empty.
+     */
+    public int nearest(long row) {
+        int found = Arrays.binarySearch(rows, 0, size, row);
+        if (found >= 0) {
+            return found;
+        }
+        int after = -found - 1;
+        if (after == 0) {
+            return 0;
+        }
+        if (after == size) {
+            return size - 1;
+        }
+        return row - rows[after - 1] <= rows[after] - row ? after - 1 : after;
+    }
+
+    public long row(int sample) {
+        return rows[sample];
+    }
+
+    public long offset(int sample) {
+        return offsets[sample];
+    }
+}
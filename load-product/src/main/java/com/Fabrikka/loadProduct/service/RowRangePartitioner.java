@@ -0,0 +1,93 @@
+package com.Fabrikka.loadProduct.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the data rows of an uploaded file into {@code gridSize} contiguous ranges.
+ * <p>
+ * Each partition's {@link ExecutionContext} carries {@code startRow} (inclusive) and {@code endRow}
+ * (exclusive), read by the step-scoped partition reader. The rows are counted with one streaming pass
+ * of the reader for the file's format.
+ * <p>
+ * For formats that can seek (CSV, NDJSON) the counting pass also samples where rows start in a
+ * {@link RowOffsetIndex}. Partitions then start on sampled rows, at most a few rows away from an even
+ * split, and carry the byte offset of their first row as {@code startOffset}, so no partition re-parses
+ * the rows before its range. XLSX partitions still scan from the top of the sheet.
+ */
+public class RowRangePartitioner implements Partitioner {
+
+    public static final String START_ROW_KEY = "startRow";
+
+    public static final String END_ROW_KEY = "endRow";
+
+    public static final String START_OFFSET_KEY = "startOffset";
+
+    private static final int OFFSET_SAMPLES = 4096;
+
+    Logger logger = LoggerFactory.getLogger(RowRangePartitioner.class);
+
+    private final Long fileId;
+
+    private final ProductReaderFactory productReaderFactory;
+
+    public RowRangePartitioner(Long fileId, ProductReaderFactory productReaderFactory) {
+        this.fileId = fileId;
+        this.productReaderFactory = productReaderFactory;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        ProductRowReader counter = productReaderFactory.create(fileId, null, null, null);
+        RowOffsetIndex offsets = new RowOffsetIndex(OFFSET_SAMPLES);
+        long rows;
+        try {
+            counter.open(new ExecutionContext());
+            rows = counter.countRemainingRows(offsets);
+        } finally {
+            counter.close();
+        }
+
+        long partitionSize = Math.max(1, (rows + gridSize - 1) / gridSize);
+        List<Long> starts = new ArrayList<>();
+        List<Long> startOffsets = new ArrayList<>();
+        for (int i = 0; i < gridSize; i++) {
+            long start = i * partitionSize;
+            // Always create at least one partition so an empty file still completes normally
+            if (start >= rows && i > 0) {
+                break;
+            }
+            Long startOffset = null;
+            if (!offsets.isEmpty() && start < rows) {
+                int sample = offsets.nearest(start);
+                start = offsets.row(sample);
+                startOffset = offsets.offset(sample);
+            }
+            if (!starts.isEmpty() && start <= starts.get(starts.size() - 1)) {
+                continue; // Snapped onto the previous partition's start
+            }
+            starts.add(start);
+            startOffsets.add(startOffset);
+        }
+
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        for (int i = 0; i < starts.size(); i++) {
+            ExecutionContext context = new ExecutionContext();
+            context.putLong(START_ROW_KEY, starts.get(i));
+            context.putLong(END_ROW_KEY, i + 1 < starts.size() ? starts.get(i + 1) : rows);
+            if (startOffsets.get(i) != null) {
+                context.putLong(START_OFFSET_KEY, startOffsets.get(i));
+            }
+            partitions.put("partition" + i, context);
+        }
+        logger.info("Split {} rows of file {} into {} partitions", rows, fileId, partitions.size());
+        return partitions;
+    }
+}
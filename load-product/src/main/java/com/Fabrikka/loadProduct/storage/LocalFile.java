@@ -0,0 +1,19 @@
+package com.Fabrikka.loadProduct.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A stored file available on local disk. Temporary copies are deleted on {@link #close()}.
+ */
+public record LocalFile(Path path, boolean temporary) implements Closeable {
+
+    @Override
+    public void close() throws IOException {
+        if (temporary) {
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.Fabrikka.loadProduct.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * {@link ProductFileStore} on the local filesystem under {@code product-file.store.local.root}.
+ * <p>
+ * Uploads are copied with {@link FileChannel#transferFrom} in slices of {@code product-file.store.buffer-size}
+ * into a temporary file that is moved into place once complete, so a partially written file is never visible.
+ */
+@Component
+@ConditionalOnProperty(name = "product-file.store.type", havingValue = "local", matchIfMissing = true)
+public class LocalProductFileStore implements ProductFileStore {
+
+    private final Path root;
+
+    private final int bufferSize;
+
+    public LocalProductFileStore(@Value("${product-file.store.local.root:${java.io.tmpdir}/product-files}") String root,
+                                 @Value("${product-file.store.buffer-size:65536}") int bufferSize) throws IOException {
+        this.root = Files.createDirectories(Path.of(root)).toAbsolutePath().normalize();
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public String store(String fileName, InputStream content, long size) throws IOException {
+        String storageKey = UUID.randomUUID() + "-" + sanitize(fileName);
+        Path partial = root.resolve(storageKey + ".part");
+        try (ReadableByteChannel source = Channels.newChannel(content);
+             FileChannel target = FileChannel.open(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long transferred;
+            // A blocking source channel only transfers 0 bytes at end of stream
+            while ((transferred = target.transferFrom(source, position, bufferSize)) > 0) {
+                position += transferred;
+            }
+            target.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, resolve(storageKey), StandardCopyOption.ATOMIC_MOVE);
+        return storageKey;
+    }
+
+    @Override
+    public InputStream open(String storageKey) throws IOException {
+        return Files.newInputStream(resolve(storageKey));
+    }
+
+    @Override
+    public void delete(String storageKey) throws IOException {
+        Files.deleteIfExists(resolve(storageKey));
+    }
+
+    @Override
+    public LocalFile localFile(String storageKey) throws IOException {
+        Path path = resolve(storageKey);
+        if (!Files.exists(path)) {
+            throw new IOException("No stored file for key: " + storageKey);
+        }
+        return new LocalFile(path, false);
+    }
+
+    private Path resolve(String storageKey) {
+        Path path = root.resolve(storageKey).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid storage key: " + storageKey);
+        }
+        return path;
+    }
+
+    static String sanitize(String fileName) {
+        String name = fileName == null ? "file" : Path.of(fileName).getFileName().toString();
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
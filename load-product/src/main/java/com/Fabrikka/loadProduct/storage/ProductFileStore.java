@@ -0,0 +1,43 @@
+package com.Fabrikka.loadProduct.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Storage for uploaded product files. The database only keeps the key returned by {@link #store}.
+ * <p>
+ * The implementation is chosen with {@code product-file.store.type}: {@code local} (default) or {@code s3}.
+ */
+public interface ProductFileStore {
+
+    /**
+     * Streams the content into the store and returns the key it can be read back with.
+     *
+     * @param fileName original file name, kept in the key for readability
+     * @param content  the content; read to the end but not closed
+     * @param size     content length in bytes
+     */
+    String store(String fileName, InputStream content, long size) throws IOException;
+
+    InputStream open(String storageKey) throws IOException;
+
+    void delete(String storageKey) throws IOException;
+
+    /**
+     * Returns the content as a file on local disk, for readers that need random access such as XLSX.
+     * By default the content is copied to a temporary file that is deleted when the handle is closed.
+     */
+    default LocalFile localFile(String storageKey) throws IOException {
+        Path copy = Files.createTempFile("product-file-", ".tmp");
+        try (InputStream content = open(storageKey)) {
+            Files.copy(content, copy, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(copy);
+            throw e;
+        }
+        return new LocalFile(copy, true);
+    }
+}
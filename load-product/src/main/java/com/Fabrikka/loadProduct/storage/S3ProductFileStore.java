@@ -0,0 +1,98 @@
+package com.Fabrikka.loadProduct.storage;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * {@link ProductFileStore} on S3-compatible object storage, such as the MinIO instance in the compose stack.
+ * <p>
+ * Uploads are streamed with a known content length, so the SDK sends the body as it reads it instead of
+ * buffering the file. The bucket is created on startup if it does not exist.
+ */
+@Component
+@ConditionalOnProperty(name = "product-file.store.type", havingValue = "s3")
+public class S3ProductFileStore implements ProductFileStore {
+
+    Logger logger = LoggerFactory.getLogger(S3ProductFileStore.class);
+
+    private final S3Client s3Client;
+
+    private final String bucket;
+
+    public S3ProductFileStore(@Value("${product-file.store.s3.endpoint:http://minio:9000}") String endpoint,
+                              @Value("${product-file.store.s3.region:us-east-1}") String region,
+                              @Value("${product-file.store.s3.bucket:product-files}") String bucket,
+                              @Value("${product-file.store.s3.access-key}") String accessKey,
+                              @Value("${product-file.store.s3.secret-key}") String secretKey) {
+        this.bucket = bucket;
+        this.s3Client = S3Client.builder()
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+                // MinIO serves buckets by path rather than by virtual host
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+        createBucketIfMissing();
+    }
+
+    @Override
+    public String store(String fileName, InputStream content, long size) throws IOException {
+        String storageKey = UUID.randomUUID() + "-" + LocalProductFileStore.sanitize(fileName);
+        try {
+            s3Client.putObject(request -> request.bucket(bucket).key(storageKey).contentLength(size),
+                    RequestBody.fromInputStream(content, size));
+        } catch (S3Exception e) {
+            throw new IOException("Could not store " + fileName + " in bucket " + bucket, e);
+        }
+        return storageKey;
+    }
+
+    @Override
+    public InputStream open(String storageKey) throws IOException {
+        try {
+            return s3Client.getObject(request -> request.bucket(bucket).key(storageKey));
+        } catch (S3Exception e) {
+            throw new IOException("Could not read " + storageKey + " from bucket " + bucket, e);
+        }
+    }
+
+    @Override
+    public void delete(String storageKey) throws IOException {
+        try {
+            s3Client.deleteObject(request -> request.bucket(bucket).key(storageKey));
+        } catch (S3Exception e) {
+            throw new IOException("Could not delete " + storageKey + " from bucket " + bucket, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        s3Client.close();
+    }
+
+    private void createBucketIfMissing() {
+        try {
+            s3Client.headBucket(request -> request.bucket(bucket));
+        } catch (NoSuchBucketException e) {
+            logger.info("Creating bucket {}", bucket);
+            s3Client.createBucket(request -> request.bucket(bucket));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.Fabrikka.loadProduct.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.repeat.RepeatContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveChunkSizePolicyTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(meterRegistry, 10, 1000, 100);
+
+    @Test
+    void growsWhileLatencyHoldsSteady() {
+        policy.recordWrite(100, 100_000_000L, true);
+        policy.recordWrite(125, 125_000_000L, true);
+
+        assertThat(policy.getChunkSize()).isEqualTo(156);
+    }
+
+    @Test
+    void shrinksWhenPerItemLatencyGetsWorse() {
+        policy.recordWrite(100, 100_000_000L, true);
+        policy.recordWrite(125, 500_000_000L, true);
+
+        assertThat(policy.getChunkSize()).isEqualTo(125 - 31);
+    }
+
+    @Test
+    void failureHalvesTheSize() {
+        policy.recordWrite(100, 100_000_000L, false);
+
+        assertThat(policy.getChunkSize()).isEqualTo(50);
+    }
+
+    @Test
+    void staysWithinBounds() {
+        for (int i = 0; i < 20; i++) {
+            policy.recordWrite(10, 1_000_000L, false);
+        }
+        assertThat(policy.getChunkSize()).isEqualTo(10);
+
+        for (int i = 0; i < 50; i++) {
+            policy.recordWrite(policy.getChunkSize(), policy.getChunkSize() * 1_000_000L, true);
+        }
+        assertThat(policy.getChunkSize()).isEqualTo(1000);
+    }
+
+    @Test
+    void chunkKeepsTheSizeItStartedWith() {
+        RepeatContext context = policy.start(null);
+        policy.recordWrite(100, 100_000_000L, false);
+
+        for (int i = 0; i < 99; i++) {
+            policy.update(context);
+        }
+        assertThat(policy.isComplete(context)).isFalse();
+        policy.update(context);
+        assertThat(policy.isComplete(context)).isTrue();
+        assertThat(policy.isComplete(policy.start(null))).isFalse();
+    }
+
+    @Test
+    void exportsTheChunkSize() {
+        policy.recordWrite(100, 100_000_000L, false);
+
+        assertThat(meterRegistry.get("product.import.chunk.size").gauge().value()).isEqualTo(50.0);
+    }
+}
@@ -0,0 +1,136 @@
+package com.Fabrikka.loadProduct.service;
+
+import com.Fabrikka.loadProduct.entity.ProductFile;
+import com.Fabrikka.loadProduct.repository.ProductFileRepository;
+import com.Fabrikka.loadProduct.storage.LocalFile;
+import com.Fabrikka.loadProduct.storage.ProductFileStore;
+import com.fabrikka.common.ProductDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Restart and range behaviour of {@link BufferedRecordReader}, exercised through the NDJSON reader with a
+ * buffer far smaller than the file so that records straddle refills.
+ */
+class BufferedRecordReaderTest {
+
+    private static final int ROWS = 10;
+
+    @TempDir
+    Path tempDir;
+
+    private final ProductFileRepository productFileRepository = mock(ProductFileRepository.class);
+
+    private final ProductFileStore productFileStore = mock(ProductFileStore.class);
+
+    private final ProductColumnMapping columnMapping = new ProductColumnMapping("0", "1", "2", "3", "4", "5",
+            "name", "description", "price", "category", "stock", "imageUrl");
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < ROWS; i++) {
+            content.append("{\"name\":\"Product ").append(i).append("\",\"price\":").append(10 + i)
+                    .append(",\"category\":\"Misc\",\"stock\":1}\n");
+            if (i == 4) {
+                content.append("\n"); // Blank lines are not rows
+            }
+        }
+        Path file = Files.write(tempDir.resolve("products.ndjson"), content.toString().getBytes(StandardCharsets.UTF_8));
+        ProductFile productFile = new ProductFile();
+        productFile.setStorageKey("products.ndjson");
+        when(productFileRepository.findById(1L)).thenReturn(Optional.of(productFile));
+        when(productFileStore.localFile("products.ndjson")).thenAnswer(invocation -> new LocalFile(file, false));
+    }
+
+    @Test
+    void restartsAtTheSavedOffset() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        NdjsonProductReader first = reader(null, null);
+        first.open(executionContext);
+        assertThat(names(first, 3)).containsExactly("Product 0", "Product 1", "Product 2");
+        first.update(executionContext);
+        first.read(); // Read after the last commit, so it is read again on restart
+        first.close();
+
+        NdjsonProductReader restarted = reader(null, null);
+        restarted.open(executionContext);
+        assertThat(names(restarted, ROWS)).containsExactly("Product 3", "Product 4", "Product 5", "Product 6",
+                "Product 7", "Product 8", "Product 9");
+        restarted.close();
+    }
+
+    @Test
+    void readsOnlyItsRowRangeAndRestartsWithinIt() throws Exception {
+        ExecutionContext executionContext = new ExecutionContext();
+        NdjsonProductReader first = reader(4L, 8L);
+        first.open(executionContext);
+        assertThat(names(first, 2)).containsExactly("Product 4", "Product 5");
+        first.update(executionContext);
+        first.close();
+
+        NdjsonProductReader restarted = reader(4L, 8L);
+        restarted.open(executionContext);
+        assertThat(names(restarted, ROWS)).containsExactly("Product 6", "Product 7");
+        restarted.close();
+    }
+
+    @Test
+    void countsRemainingRowsWithoutBlankLines() {
+        NdjsonProductReader reader = reader(null, null);
+        reader.open(new ExecutionContext());
+        assertThat(reader.countRemainingRows()).isEqualTo(ROWS);
+        reader.close();
+    }
+
+    @Test
+    void seeksToRecordedRowOffsets() throws Exception {
+        RowOffsetIndex index = new RowOffsetIndex(ROWS);
+        NdjsonProductReader counter = reader(null, null);
+        counter.open(new ExecutionContext());
+        assertThat(counter.countRemainingRows(index)).isEqualTo(ROWS);
+        counter.close();
+
+        for (int row = 0; row < ROWS; row++) {
+            int sample = index.nearest(row);
+            assertThat(index.row(sample)).isEqualTo(row);
+            NdjsonProductReader partition = reader((long) row, row + 2L, index.offset(sample));
+            partition.open(new ExecutionContext());
+            assertThat(names(partition, ROWS)).containsExactlyElementsOf(
+                    row + 1 < ROWS ? List.of("Product " + row, "Product " + (row + 1)) : List.of("Product " + row));
+            partition.close();
+        }
+    }
+
+    private NdjsonProductReader reader(Long startRow, Long endRow) {
+        return reader(startRow, endRow, null);
+    }
+
+    private NdjsonProductReader reader(Long startRow, Long endRow, Long startOffset) {
+        return new NdjsonProductReader(1L, productFileRepository, productFileStore, columnMapping, new ObjectMapper(),
+                startRow, endRow, startOffset, 32, 1024);
+    }
+
+    private static List<String> names(NdjsonProductReader reader, int max) throws Exception {
+        List<String> names = new ArrayList<>();
+        ProductDto product;
+        while (names.size() < max && (product = reader.read()) != null) {
+            names.add(product.getName());
+        }
+        return names;
+    }
+}
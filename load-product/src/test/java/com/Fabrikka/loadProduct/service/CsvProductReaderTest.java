@@ -0,0 +1,117 @@
+package com.Fabrikka.loadProduct.service;
+
+import com.Fabrikka.loadProduct.entity.ProductFile;
+import com.Fabrikka.loadProduct.repository.ProductFileRepository;
+import com.Fabrikka.loadProduct.storage.LocalFile;
+import com.Fabrikka.loadProduct.storage.ProductFileStore;
+import com.fabrikka.common.ProductDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CsvProductReaderTest {
+
+    private static final String HEADER = "name,description,price,category,stock,imageUrl\n";
+
+    @TempDir
+    Path tempDir;
+
+    private CsvProductReader reader;
+
+    @AfterEach
+    void tearDown() {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+
+    @Test
+    void readsQuotedDelimitersLineBreaksAndDoubledQuotes() throws Exception {
+        List<ProductDto> products = readAll(HEADER
+                + "\"Desk, oak\",\"Two drawers\nsolid \"\"oak\"\"\",120.50,Furniture,3,\n"
+                + "Lamp,,15,Lighting,8,http://img/lamp.png\n", 8, 1024);
+
+        assertThat(products).hasSize(2);
+        assertThat(products.get(0).getName()).isEqualTo("Desk, oak");
+        assertThat(products.get(0).getDescription()).isEqualTo("Two drawers\nsolid \"oak\"");
+        assertThat(products.get(0).getPrice()).isEqualByComparingTo(new BigDecimal("120.50"));
+        assertThat(products.get(0).getImageUrl()).isNull();
+        assertThat(products.get(1).getDescription()).isNull();
+        assertThat(products.get(1).getImageUrl()).isEqualTo("http://img/lamp.png");
+    }
+
+    @Test
+    void quoteInsideUnquotedFieldIsLiteral() throws Exception {
+        List<ProductDto> products = readAll(HEADER
+                + "Monitor,27\" screen,200,Displays,4,\n"
+                + "Cable,1m,5,Accessories,100,\n", 8, 1024);
+
+        assertThat(products).extracting(ProductDto::getName).containsExactly("Monitor", "Cable");
+        assertThat(products.get(0).getDescription()).isEqualTo("27\" screen");
+    }
+
+    @Test
+    void ignoresByteOrderMarkBeforeHeader() throws Exception {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        content.write((HEADER + "Chair,,40,Furniture,2,\n").getBytes(StandardCharsets.UTF_8));
+
+        List<ProductDto> products = readAll(content.toByteArray(), 1024, 1024);
+
+        assertThat(products).extracting(ProductDto::getName).containsExactly("Chair");
+    }
+
+    @Test
+    void failsOnRecordLongerThanTheLimit() throws Exception {
+        StringBuilder content = new StringBuilder(HEADER).append("\"Unterminated,desc,1,Misc,1,\n");
+        for (int i = 0; i < 20; i++) {
+            content.append("Row ").append(i).append(",desc,1,Misc,1,\n");
+        }
+
+        assertThatThrownBy(() -> readAll(content.toString(), 16, 128))
+                .isInstanceOf(ItemStreamException.class)
+                .hasMessageContaining("longer than 128 bytes");
+    }
+
+    private List<ProductDto> readAll(String content, int bufferSize, int maxRecordBytes) throws Exception {
+        return readAll(content.getBytes(StandardCharsets.UTF_8), bufferSize, maxRecordBytes);
+    }
+
+    private List<ProductDto> readAll(byte[] content, int bufferSize, int maxRecordBytes) throws Exception {
+        Path file = Files.write(tempDir.resolve("products.csv"), content);
+        ProductFile productFile = new ProductFile();
+        productFile.setStorageKey("products.csv");
+        ProductFileRepository productFileRepository = mock(ProductFileRepository.class);
+        when(productFileRepository.findById(1L)).thenReturn(Optional.of(productFile));
+        ProductFileStore productFileStore = mock(ProductFileStore.class);
+        when(productFileStore.localFile("products.csv")).thenReturn(new LocalFile(file, false));
+        ProductColumnMapping columnMapping = new ProductColumnMapping("name", "description", "price", "category", "stock",
+                "imageUrl", "name", "description", "price", "category", "stock", "imageUrl");
+
+        reader = new CsvProductReader(1L, productFileRepository, productFileStore, columnMapping, ',', null, null, null,
+                bufferSize, maxRecordBytes);
+        reader.open(new ExecutionContext());
+        List<ProductDto> products = new ArrayList<>();
+        ProductDto product;
+        while ((product = reader.read()) != null) {
+            products.add(product);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,168 @@
+package com.Fabrikka.loadProduct.service;
+
+import com.Fabrikka.loadProduct.entity.ProductFile;
+import com.Fabrikka.loadProduct.repository.ProductFileRepository;
+import com.Fabrikka.loadProduct.storage.LocalFile;
+import com.Fabrikka.loadProduct.storage.ProductFileStore;
+import com.fabrikka.common.ProductDto;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExcelReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ProductFileRepository productFileRepository = mock(ProductFileRepository.class);
+
+    private final ProductFileStore productFileStore = mock(ProductFileStore.class);
+
+    private ExcelReader reader;
+
+    @BeforeEach
+    void setUp() {
+        ProductFile productFile = new ProductFile();
+        productFile.setStorageKey("products.xlsx");
+        when(productFileRepository.findById(1L)).thenReturn(Optional.of(productFile));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+
+    @Test
+    void placesSparseCellsByTheirReference() throws Exception {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            header(sheet.createRow(0), "name", "description", "price", "category", "stock", "imageUrl");
+            Row desk = sheet.createRow(1);
+            desk.createCell(0).setCellValue("Desk");
+            desk.createCell(2).setCellValue(120.5);
+            desk.createCell(3).setCellValue("Furniture");
+            desk.createCell(4).setCellValue(3);
+            // No description or image cells at all: the gaps must not shift later cells left
+            Row lamp = sheet.createRow(2);
+            lamp.createCell(0).setCellValue("Lamp");
+            lamp.createCell(1).setCellValue("Brass");
+            lamp.createCell(2).setCellValue(15);
+            lamp.createCell(3).setCellValue("Lighting");
+            lamp.createCell(4).setCellValue(8);
+            lamp.createCell(5).setCellValue("http://img/lamp.png");
+            write(workbook);
+        }
+
+        List<ProductDto> products = readAll(mapping("name", "description", "price", "category", "stock", "imageUrl"));
+
+        assertThat(products).hasSize(2);
+        assertThat(products.get(0).getName()).isEqualTo("Desk");
+        assertThat(products.get(0).getDescription()).isNull();
+        assertThat(products.get(0).getPrice()).isEqualByComparingTo(new BigDecimal("120.5"));
+        assertThat(products.get(0).getCategory().getName()).isEqualTo("Furniture");
+        assertThat(products.get(0).getInventory().getAvailableStock()).isEqualTo(3);
+        assertThat(products.get(0).getImageUrl()).isNull();
+        assertThat(products.get(1).getDescription()).isEqualTo("Brass");
+        assertThat(products.get(1).getImageUrl()).isEqualTo("http://img/lamp.png");
+    }
+
+    @Test
+    void resolvesColumnsPastZ() throws Exception {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("name");
+            header.createCell(2).setCellValue("price");
+            header.createCell(3).setCellValue("category");
+            header.createCell(4).setCellValue("stock");
+            header.createCell(27).setCellValue("image");
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("Rug");
+            row.createCell(2).setCellValue(60);
+            row.createCell(3).setCellValue("Decor");
+            row.createCell(4).setCellValue(1);
+            row.createCell(27).setCellValue("http://img/rug.png");
+            write(workbook);
+        }
+
+        List<ProductDto> products = readAll(mapping("name", "1", "price", "category", "stock", "image"));
+
+        assertThat(products).singleElement().satisfies(product -> {
+            assertThat(product.getDescription()).isNull();
+            assertThat(product.getImageUrl()).isEqualTo("http://img/rug.png");
+        });
+    }
+
+    @Test
+    void readsInlineStrings() throws Exception {
+        // The streaming workbook writes inline strings instead of a shared strings table
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            header(sheet.createRow(0), "name", "description", "price", "category", "stock", "imageUrl");
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue("Stool");
+            row.createCell(2).setCellValue(25);
+            row.createCell(3).setCellValue("Furniture");
+            row.createCell(4).setCellValue(6);
+            write(workbook);
+            workbook.dispose();
+        }
+
+        List<ProductDto> products = readAll(mapping("name", "description", "price", "category", "stock", "imageUrl"));
+
+        assertThat(products).extracting(ProductDto::getName).containsExactly("Stool");
+        assertThat(products.get(0).getCategory().getName()).isEqualTo("Furniture");
+    }
+
+    private static void header(Row row, String... names) {
+        for (int i = 0; i < names.length; i++) {
+            row.createCell(i).setCellValue(names[i]);
+        }
+    }
+
+    private void write(Workbook workbook) throws Exception {
+        Path file = tempDir.resolve("products.xlsx");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            workbook.write(out);
+        }
+        when(productFileStore.localFile("products.xlsx")).thenAnswer(invocation -> new LocalFile(file, false));
+    }
+
+    private static ProductColumnMapping mapping(String name, String description, String price, String category,
+                                                String stock, String imageUrl) {
+        return new ProductColumnMapping(name, description, price, category, stock, imageUrl,
+                "name", "description", "price", "category", "stock", "imageUrl");
+    }
+
+    private List<ProductDto> readAll(ProductColumnMapping columnMapping) throws Exception {
+        reader = new ExcelReader(1L, productFileRepository, productFileStore, columnMapping, null, null);
+        reader.open(new ExecutionContext());
+        List<ProductDto> products = new ArrayList<>();
+        ProductDto product;
+        while ((product = reader.read()) != null) {
+            products.add(product);
+        }
+        return products;
+    }
+}
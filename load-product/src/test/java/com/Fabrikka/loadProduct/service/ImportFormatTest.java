@@ -0,0 +1,34 @@
+package com.Fabrikka.loadProduct.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImportFormatTest {
+
+    @Test
+    void detectsFromContentType() {
+        assertThat(ImportFormat.detect("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "upload"))
+                .isEqualTo(ImportFormat.XLSX);
+        assertThat(ImportFormat.detect("text/csv; charset=UTF-8", "upload")).isEqualTo(ImportFormat.CSV);
+        assertThat(ImportFormat.detect("Application/X-NDJSON", "upload")).isEqualTo(ImportFormat.NDJSON);
+    }
+
+    @Test
+    void contentTypeWinsOverExtension() {
+        assertThat(ImportFormat.detect("text/csv", "products.xlsx")).isEqualTo(ImportFormat.CSV);
+    }
+
+    @Test
+    void fallsBackToExtensionForGenericContentType() {
+        assertThat(ImportFormat.detect("application/octet-stream", "Products.XLSX")).isEqualTo(ImportFormat.XLSX);
+        assertThat(ImportFormat.detect(null, "products.csv")).isEqualTo(ImportFormat.CSV);
+        assertThat(ImportFormat.detect("", "products.jsonl")).isEqualTo(ImportFormat.NDJSON);
+    }
+
+    @Test
+    void returnsNullForUnsupportedFiles() {
+        assertThat(ImportFormat.detect("application/pdf", "products.pdf")).isNull();
+        assertThat(ImportFormat.detect(null, null)).isNull();
+    }
+}
@@ -0,0 +1,138 @@
+package com.Fabrikka.loadProduct.service;
+
+import com.Fabrikka.loadProduct.entity.ProductFile;
+import com.Fabrikka.loadProduct.repository.ProductFileRepository;
+import com.Fabrikka.loadProduct.storage.LocalFile;
+import com.Fabrikka.loadProduct.storage.ProductFileStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Parses the same rows as CSV, NDJSON and XLSX through the readers {@code importJob} uses and reports rows/s
+ * for each. Not part of the regular build; run it with
+ * {@code ./mvnw test -Dtest=ParseThroughputBenchmark -Dbenchmark=true [-Dbenchmark.rows=500000]}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ParseThroughputBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    private static final String[] HEADER = {"name", "description", "price", "category", "stock", "imageUrl"};
+
+    @TempDir
+    Path tempDir;
+
+    private final ProductFileRepository productFileRepository = mock(ProductFileRepository.class);
+
+    private final ProductFileStore productFileStore = mock(ProductFileStore.class);
+
+    @Test
+    void csvAndNdjsonAgainstXlsx() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 500_000);
+        register(1L, ImportFormat.CSV, writeCsv(rows));
+        register(2L, ImportFormat.NDJSON, writeNdjson(rows));
+        register(3L, ImportFormat.XLSX, writeXlsx(rows));
+        ProductColumnMapping columnMapping = new ProductColumnMapping("0", "1", "2", "3", "4", "5",
+                "name", "description", "price", "category", "stock", "imageUrl");
+        ProductReaderFactory factory = new ProductReaderFactory(productFileRepository, productFileStore, columnMapping,
+                new ObjectMapper(), ',', 1 << 20, 1 << 20);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.printf("round %d: %d rows: csv %,d rows/s, ndjson %,d rows/s, xlsx %,d rows/s%n", round, rows,
+                    rowsPerSecond(factory, 1L, rows), rowsPerSecond(factory, 2L, rows), rowsPerSecond(factory, 3L, rows));
+        }
+    }
+
+    private long rowsPerSecond(ProductReaderFactory factory, Long fileId, int rows) throws Exception {
+        long started = System.nanoTime();
+        ProductRowReader reader = factory.create(fileId, null, null, null);
+        long read = 0;
+        try {
+            reader.open(new ExecutionContext());
+            while (reader.read() != null) {
+                read++;
+            }
+        } finally {
+            reader.close();
+        }
+        long elapsed = System.nanoTime() - started;
+        assertThat(read).isEqualTo(rows);
+        return read * 1_000_000_000L / elapsed;
+    }
+
+    private void register(Long fileId, ImportFormat format, Path file) {
+        ProductFile productFile = new ProductFile();
+        productFile.setStorageKey(file.getFileName().toString());
+        productFile.setFormat(format.name());
+        when(productFileRepository.findById(fileId)).thenReturn(Optional.of(productFile));
+        when(productFileStore.localFile(productFile.getStorageKey())).thenAnswer(invocation -> new LocalFile(file, false));
+    }
+
+    private Path writeCsv(int rows) throws Exception {
+        Path file = tempDir.resolve("products.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", HEADER) + "\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write("Product " + i + ",\"Cotton, size " + (i % 5) + "\"," + price(i) + ",Category "
+                        + (i % 20) + "," + (i % 500) + ",https://img.example.com/" + i + ".png\n");
+            }
+        }
+        return file;
+    }
+
+    private Path writeNdjson(int rows) throws Exception {
+        Path file = tempDir.resolve("products.ndjson");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write("{\"name\":\"Product " + i + "\",\"description\":\"Cotton, size " + (i % 5)
+                        + "\",\"price\":" + price(i) + ",\"category\":\"Category " + (i % 20) + "\",\"stock\":"
+                        + (i % 500) + ",\"imageUrl\":\"https://img.example.com/" + i + ".png\"}\n");
+            }
+        }
+        return file;
+    }
+
+    private Path writeXlsx(int rows) throws Exception {
+        Path file = tempDir.resolve("products.xlsx");
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(1_000); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            Row header = sheet.createRow(0);
+            for (int column = 0; column < HEADER.length; column++) {
+                header.createCell(column).setCellValue(HEADER[column]);
+            }
+            for (int i = 0; i < rows; i++) {
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue("Product " + i);
+                row.createCell(1).setCellValue("Cotton, size " + (i % 5));
+                row.createCell(2).setCellValue(Double.parseDouble(price(i)));
+                row.createCell(3).setCellValue("Category " + (i % 20));
+                row.createCell(4).setCellValue(i % 500);
+                row.createCell(5).setCellValue("https://img.example.com/" + i + ".png");
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return file;
+    }
+
+    private static String price(int i) {
+        return (10 + i % 90) + ".99";
+    }
+}
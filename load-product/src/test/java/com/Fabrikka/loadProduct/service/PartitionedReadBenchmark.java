@@ -0,0 +1,126 @@
+package com.Fabrikka.loadProduct.service;
+
+import com.Fabrikka.loadProduct.entity.ProductFile;
+import com.Fabrikka.loadProduct.repository.ProductFileRepository;
+import com.Fabrikka.loadProduct.storage.LocalFile;
+import com.Fabrikka.loadProduct.storage.ProductFileStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reports read throughput of a partitioned CSV import at 1, 4 and 8 partitions, comparing readers that seek
+ * to the partitioner's recorded offsets with readers that skip to {@code startRow} record by record. Covers
+ * the read side only; the Feign writes are not included. Not part of the regular build; run it with
+ * {@code ./mvnw test -Dtest=PartitionedReadBenchmark -Dbenchmark=true [-Dbenchmark.rows=2000000]}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PartitionedReadBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    private static final int[] PARTITIONS = {1, 4, 8};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void rowsPerSecondByPartitionCount() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 2_000_000);
+        ProductReaderFactory factory = factory(writeCsv(rows));
+        for (int partitions : PARTITIONS) {
+            ExecutorService workers = Executors.newFixedThreadPool(partitions);
+            try {
+                Map<String, ExecutionContext> withOffsets = new RowRangePartitioner(1L, factory).partition(partitions);
+                Map<String, ExecutionContext> withoutOffsets = new RowRangePartitioner(1L, factory).partition(partitions);
+                withoutOffsets.values().forEach(context -> context.remove(RowRangePartitioner.START_OFFSET_KEY));
+
+                for (int round = 0; round < ROUNDS; round++) {
+                    long seek = timeRead(factory, withOffsets, workers, rows);
+                    long skip = timeRead(factory, withoutOffsets, workers, rows);
+                    System.out.printf("round %d: %d rows, %d partitions: seek %,d rows/s, skip %,d rows/s%n",
+                            round, rows, partitions, rows * 1_000_000_000L / seek, rows * 1_000_000_000L / skip);
+                }
+            } finally {
+                workers.shutdown();
+            }
+        }
+    }
+
+    private long timeRead(ProductReaderFactory factory, Map<String, ExecutionContext> partitions,
+                          ExecutorService workers, int rows) throws Exception {
+        long started = System.nanoTime();
+        List<Future<Long>> reads = new ArrayList<>();
+        for (ExecutionContext partition : partitions.values()) {
+            reads.add(workers.submit(() -> {
+                ProductRowReader reader = factory.create(1L,
+                        partition.getLong(RowRangePartitioner.START_ROW_KEY),
+                        partition.getLong(RowRangePartitioner.END_ROW_KEY),
+                        partition.containsKey(RowRangePartitioner.START_OFFSET_KEY)
+                                ? partition.getLong(RowRangePartitioner.START_OFFSET_KEY) : null);
+                long read = 0;
+                try {
+                    reader.open(new ExecutionContext());
+                    while (reader.read() != null) {
+                        read++;
+                    }
+                } finally {
+                    reader.close();
+                }
+                return read;
+            }));
+        }
+        long total = 0;
+        for (Future<Long> read : reads) {
+            total += read.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        assertThat(total).isEqualTo(rows);
+        return elapsed;
+    }
+
+    private Path writeCsv(int rows) throws Exception {
+        Path file = tempDir.resolve("products.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("name,description,price,category,stock,imageUrl\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write("Product " + i + ",\"Cotton, size " + (i % 5) + "\"," + (10 + i % 90) + ".99,Category "
+                        + (i % 20) + "," + (i % 500) + ",https://img.example.com/" + i + ".png\n");
+            }
+        }
+        return file;
+    }
+
+    private static ProductReaderFactory factory(Path file) throws Exception {
+        ProductFile productFile = new ProductFile();
+        productFile.setStorageKey("products.csv");
+        productFile.setFormat(ImportFormat.CSV.name());
+        ProductFileRepository productFileRepository = mock(ProductFileRepository.class);
+        when(productFileRepository.findById(1L)).thenReturn(Optional.of(productFile));
+        ProductFileStore productFileStore = mock(ProductFileStore.class);
+        when(productFileStore.localFile(anyString())).thenAnswer(invocation -> new LocalFile(file, false));
+        ProductColumnMapping columnMapping = new ProductColumnMapping("0", "1", "2", "3", "4", "5",
+                "name", "description", "price", "category", "stock", "imageUrl");
+        return new ProductReaderFactory(productFileRepository, productFileStore, columnMapping, new ObjectMapper(),
+                ',', 1 << 20, 1 << 20);
+    }
+}
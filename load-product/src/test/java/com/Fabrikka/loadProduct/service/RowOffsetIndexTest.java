@@ -0,0 +1,43 @@
+package com.Fabrikka.loadProduct.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowOffsetIndexTest {
+
+    @Test
+    void keepsEveryRowWhileUnderCapacity() {
+        RowOffsetIndex index = filled(8, 8);
+
+        for (int row = 0; row < 8; row++) {
+            assertThat(index.row(index.nearest(row))).isEqualTo(row);
+            assertThat(index.offset(index.nearest(row))).isEqualTo(row * 100L);
+        }
+    }
+
+    @Test
+    void thinsOutEvenlyOnceFull() {
+        RowOffsetIndex index = filled(8, 100);
+
+        // 100 rows in 8 samples: the stride has doubled to 16, samples sit at 0, 16, ..., 96
+        assertThat(index.row(index.nearest(50))).isEqualTo(48);
+        assertThat(index.offset(index.nearest(50))).isEqualTo(4800L);
+        assertThat(index.row(index.nearest(57))).isEqualTo(64);
+        assertThat(index.row(index.nearest(1000))).isEqualTo(96);
+        assertThat(index.row(index.nearest(0))).isEqualTo(0);
+    }
+
+    @Test
+    void startsEmpty() {
+        assertThat(new RowOffsetIndex(4).isEmpty()).isTrue();
+    }
+
+    private static RowOffsetIndex filled(int capacity, int rows) {
+        RowOffsetIndex index = new RowOffsetIndex(capacity);
+        for (long row = 0; row < rows; row++) {
+            index.record(row, row * 100);
+        }
+        return index;
+    }
+}
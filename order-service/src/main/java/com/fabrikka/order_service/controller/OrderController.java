@@ -29,6 +29,11 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @PutMapping("/{orderId}/cancel")
+    public ResponseEntity<OrderResponse> cancelOrder(@PathVariable Long orderId) {
+        return ResponseEntity.ok(orderService.cancelOrder(orderId));
+    }
+
     @DeleteMapping("/remove/{userId}")
     public ResponseEntity<String> removeOrder(@PathVariable Long userId) {
         orderService.removeOrder(userId);
@@ -75,6 +75,16 @@ public class OrderService {
                 .build();
     }
 
+    /**
+     * Marks an order as cancelled, e.g. when the stock held for it could not be committed.
+     */
+    public OrderResponse cancelOrder(Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found for ID: " + orderId));
+        order.setStatus("CANCELLED");
+        return mapToOrderResponse(orderRepository.save(order));
+    }
+
     public void removeOrder(Long userId) {
         List<Order> orders = orderRepository.findByUserId(userId);
         if (orders != null && !orders.isEmpty()) {
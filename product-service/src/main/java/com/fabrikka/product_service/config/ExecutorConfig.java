@@ -0,0 +1,46 @@
+package com.fabrikka.product_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Boot only auto-configures {@code applicationTaskExecutor} when the context has no other
+     * {@code Executor} bean, so declaring {@link #inventoryExecutor} would otherwise leave MVC async
+     * requests (the streamed catalog export) on an unbounded {@code SimpleAsyncTaskExecutor}.
+     * This declares it the same way Boot does, still configured from {@code spring.task.execution.*}.
+     */
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Bounded pool for bulk inventory calls made after a product import.
+     * When the queue is full the submitting thread runs the task itself, which throttles the
+     * producer instead of queueing without limit.
+     */
+    @Bean(name = "inventoryExecutor")
+    public ThreadPoolTaskExecutor inventoryExecutor(@Value("${inventory.bulk.threads:4}") int threads,
+                                                    @Value("${inventory.bulk.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("inventory-bulk-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
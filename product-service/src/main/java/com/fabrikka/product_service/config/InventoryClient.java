@@ -5,6 +5,8 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @FeignClient(name = "INVENTORY-SERVICE")
@@ -13,9 +15,18 @@ public interface InventoryClient {
     @GetMapping("/inventory/{productId}")
     ResponseEntity<InventoryDto> getInventory(@PathVariable UUID productId);
 
+    @PostMapping("/inventory/batch")
+    ResponseEntity<List<InventoryDto>> getInventories(@RequestBody Set<UUID> productIds);
+
+    @GetMapping("/inventory/snapshot")
+    ResponseEntity<List<InventoryDto>> getAllInventories();
+
     @PutMapping("/inventory/{productId}")
     ResponseEntity<String> updateInventory(@PathVariable UUID productId, @RequestParam Integer quantity);
 
     @PostMapping("/inventory/add")
     ResponseEntity<String> addInventory(@RequestBody InventoryDto inventoryDto);
+
+    @PostMapping("/inventory/addAll")
+    ResponseEntity<String> addAllInventory(@RequestBody List<InventoryDto> inventoryDtos);
 }
\ No newline at end of file
@@ -1,13 +1,22 @@
 package com.fabrikka.product_service.controller;
 
 import com.fabrikka.common.CategoryDto;
+import com.fabrikka.common.ErrorResponseDto;
 import com.fabrikka.common.ProductDto;
+import com.fabrikka.product_service.dto.ProductFacetsDto;
+import com.fabrikka.product_service.dto.ProductSliceDto;
+import com.fabrikka.product_service.exception.ProductBatchTooLargeException;
 import com.fabrikka.product_service.service.ProductService;
+import com.fabrikka.product_service.service.export.ProductExportWriter;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,8 +26,11 @@ public class ProductServiceController {
 
     final ProductService productService;
 
-    public ProductServiceController(ProductService productService) {
+    final ProductExportWriter productExportWriter;
+
+    public ProductServiceController(ProductService productService, ProductExportWriter productExportWriter) {
         this.productService = productService;
+        this.productExportWriter = productExportWriter;
     }
 
     @PostMapping("/add")
@@ -28,10 +40,24 @@ public class ProductServiceController {
     }
 
 
+    /**
+     * Streams the whole catalog as one JSON array, written chunk by chunk while it is read.
+     */
     @GetMapping("/all")
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
-        List<ProductDto> products = productService.getAllProducts();
-        return new ResponseEntity<>(products, HttpStatus.OK);
+    public ResponseEntity<StreamingResponseBody> getAllProducts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(productExportWriter::writeJsonArray);
+    }
+
+    /**
+     * Streams the whole catalog as newline-delimited JSON, one product per line.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(productExportWriter::writeNdjson);
     }
 
     @GetMapping("/{id}")
@@ -41,6 +67,25 @@ public class ProductServiceController {
 
     }
 
+    /**
+     * Returns the requested products in request order, skipping unknown IDs. Requests above
+     * {@code product.batch.max-size} IDs are rejected with 400.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductDto>> getProductsByIds(@RequestBody List<UUID> productIds) {
+        return new ResponseEntity<>(productService.getProductsByIds(productIds), HttpStatus.OK);
+    }
+
+    @ExceptionHandler(ProductBatchTooLargeException.class)
+    public ResponseEntity<ErrorResponseDto> handleProductBatchTooLargeException(ProductBatchTooLargeException exception, WebRequest webRequest) {
+        ErrorResponseDto errorResponseDTO = new ErrorResponseDto();
+        errorResponseDTO.setApiPath(webRequest.getDescription(false));
+        errorResponseDTO.setErrorCode(String.valueOf(HttpStatus.BAD_REQUEST));
+        errorResponseDTO.setErrorMessage(exception.getMessage());
+        errorResponseDTO.setErrorTime(LocalDateTime.now());
+        return new ResponseEntity<>(errorResponseDTO, HttpStatus.BAD_REQUEST);
+    }
+
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<String> deleteProduct(@PathVariable UUID id) {
         productService.deleteProduct(id);
@@ -64,6 +109,15 @@ public class ProductServiceController {
         return new ResponseEntity<>("Products added", HttpStatus.CREATED);
     }
 
+    /**
+     * Bulk import keyed by product name: unknown names are created, known ones updated in place.
+     */
+    @PostMapping("/upsertAll")
+    public ResponseEntity<String> upsertAll(@RequestBody List<ProductDto> productDto) {
+        productService.upsertAll(productDto);
+        return new ResponseEntity<>("Products upserted", HttpStatus.OK);
+    }
+
     @GetMapping("/search")
     ResponseEntity<Page<ProductDto>> getProductsPaginated(
             @RequestParam("page") int page,
@@ -76,5 +130,44 @@ public class ProductServiceController {
         return new ResponseEntity<>(productService.getProductsPaginated(page, size, categories, minPrice, maxPrice, sort),HttpStatus.OK);
     }
 
+    @GetMapping("/facets")
+    ResponseEntity<ProductFacetsDto> getFacets(
+            @RequestParam(value = "categories", required = false) List<String> categories,
+            @RequestParam(value = "minPrice", required = false) Double minPrice,
+            @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return new ResponseEntity<>(productService.getFacets(categories, minPrice, maxPrice, sort, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/search/text")
+    ResponseEntity<List<ProductDto>> searchText(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return new ResponseEntity<>(productService.searchText(query, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/suggest")
+    ResponseEntity<List<String>> suggest(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return new ResponseEntity<>(productService.suggest(prefix, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/search/scroll")
+    ResponseEntity<ProductSliceDto> getProductsScroll(
+            @RequestParam("size") int size,
+            @RequestParam(value = "categories", required = false) List<String> categories,
+            @RequestParam(value = "minPrice", required = false) Double minPrice,
+            @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        try {
+            return new ResponseEntity<>(productService.getProductsScroll(size, categories, minPrice, maxPrice, sort, cursor), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
 
 }
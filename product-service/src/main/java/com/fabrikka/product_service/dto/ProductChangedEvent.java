@@ -0,0 +1,25 @@
+package com.fabrikka.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Event broadcast on the product-changed destination whenever catalog data is written.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ProductChangedEvent {
+
+    public enum ChangeType { CREATED, UPDATED, DELETED }
+
+    private ChangeType changeType;
+
+    private List<UUID> productIds;
+}
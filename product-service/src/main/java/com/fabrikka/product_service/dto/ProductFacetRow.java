@@ -0,0 +1,21 @@
+package com.fabrikka.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Read-only projection with just the columns the facet index needs, loaded without materializing entities.
+ */
+@AllArgsConstructor
+@Getter
+public class ProductFacetRow {
+
+    private UUID productId;
+
+    private String categoryName;
+
+    private BigDecimal price;
+}
@@ -0,0 +1,28 @@
+package com.fabrikka.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Result of a facet query: the IDs of matching products (up to the requested limit), the total
+ * number of matches, and per-category counts under the price filter alone, so the UI can show
+ * how many products each category checkbox would yield.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ProductFacetsDto {
+
+    private List<UUID> productIds;
+
+    private long totalMatches;
+
+    private Map<String, Long> categoryCounts;
+}
@@ -0,0 +1,28 @@
+package com.fabrikka.product_service.dto;
+
+import com.fabrikka.common.ProductDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * One window of a keyset-paginated product listing. Carries no total count; {@code nextCursor}
+ * is an opaque token to pass back for the following window and is null on the last one.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ProductSliceDto {
+
+    private List<ProductDto> content;
+
+    private int size;
+
+    private boolean hasNext;
+
+    private String nextCursor;
+}
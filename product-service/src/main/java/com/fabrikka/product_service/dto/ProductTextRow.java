@@ -0,0 +1,20 @@
+package com.fabrikka.product_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection with just the columns the full-text index needs, loaded without materializing entities.
+ */
+@AllArgsConstructor
+@Getter
+public class ProductTextRow {
+
+    private UUID productId;
+
+    private String name;
+
+    private String description;
+}
@@ -0,0 +1,22 @@
+package com.fabrikka.product_service.dto;
+
+import com.fabrikka.common.InventoryDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Event received on the stock-changed destination from inventory-service, carrying the current
+ * (absolute) stock of every product written since its previous event.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class StockChangedEvent {
+
+    private List<InventoryDto> inventories;
+}
@@ -0,0 +1,9 @@
+package com.fabrikka.product_service.exception;
+
+public class ProductBatchTooLargeException extends RuntimeException {
+
+    public ProductBatchTooLargeException(int requested, int maxSize) {
+        super(String.format("At most %d product IDs can be requested at once, got %d (product.batch.max-size)",
+                maxSize, requested));
+    }
+}
@@ -0,0 +1,62 @@
+package com.fabrikka.product_service.function;
+
+import com.fabrikka.product_service.dto.ProductChangedEvent;
+import com.fabrikka.product_service.dto.StockChangedEvent;
+import com.fabrikka.product_service.service.cache.ProductCache;
+import com.fabrikka.product_service.service.cache.StockNearCache;
+import com.fabrikka.product_service.service.search.ProductFacetIndex;
+import com.fabrikka.product_service.service.search.ProductTextIndex;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+@Configuration
+public class ProductEventFunctions {
+
+    final ProductCache productCache;
+
+    final ProductFacetIndex productFacetIndex;
+
+    final ProductTextIndex productTextIndex;
+
+    final StockNearCache stockNearCache;
+
+    public ProductEventFunctions(ProductCache productCache, ProductFacetIndex productFacetIndex,
+                                 ProductTextIndex productTextIndex, StockNearCache stockNearCache) {
+        this.productCache = productCache;
+        this.productFacetIndex = productFacetIndex;
+        this.productTextIndex = productTextIndex;
+        this.stockNearCache = stockNearCache;
+    }
+
+    /**
+     * A Spring Cloud Function that consumes product change events broadcast by any product-service
+     * instance (including this one), evicts the affected entries from the local catalog cache and
+     * re-indexes them in the facet and full-text indexes.
+     */
+    @Bean
+    Consumer<ProductChangedEvent> productChanged() {
+        return event -> {
+            if (event.getProductIds() == null) {
+                productCache.invalidateAll();
+                productFacetIndex.rebuild();
+                productTextIndex.rebuild();
+            } else {
+                productCache.invalidate(event.getProductIds());
+                productFacetIndex.refresh(event.getProductIds());
+                productTextIndex.refresh(event.getProductIds());
+            }
+        };
+    }
+
+    /**
+     * Consumes stock change events and heartbeats from inventory-service and applies them to the local
+     * stock near-cache.
+     */
+    @Bean
+    Consumer<StockChangedEvent> stockChanged() {
+        return event -> stockNearCache.onEvent(event.getInventories() != null ? event.getInventories() : List.of());
+    }
+}
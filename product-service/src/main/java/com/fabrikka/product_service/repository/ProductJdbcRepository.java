@@ -0,0 +1,43 @@
+package com.fabrikka.product_service.repository;
+
+import com.fabrikka.product_service.entity.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Plain JDBC write path for bulk product ingest.
+ * <p>
+ * Rows are sent with {@link JdbcTemplate#batchUpdate} in batches of {@code product.ingest.batch-size},
+ * bypassing the persistence context so a large import does not build up thousands of managed
+ * entities. Callers must assign product IDs and resolve categories before calling.
+ */
+@Repository
+public class ProductJdbcRepository {
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO product (product_id, name, description, price, image_url, category_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+
+    public ProductJdbcRepository(JdbcTemplate jdbcTemplate,
+                                 @Value("${product.ingest.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void insertAll(List<Product> products) {
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, products, batchSize, (statement, product) -> {
+            statement.setObject(1, product.getProductId());
+            statement.setString(2, product.getName());
+            statement.setString(3, product.getDescription());
+            statement.setBigDecimal(4, product.getPrice());
+            statement.setString(5, product.getImageUrl());
+            statement.setObject(6, product.getCategory().getCategoryId());
+        });
+    }
+}
@@ -1,12 +1,78 @@
 package com.fabrikka.product_service.repository;
 
+import com.fabrikka.product_service.dto.ProductFacetRow;
+import com.fabrikka.product_service.dto.ProductTextRow;
 import com.fabrikka.product_service.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+/**
+ * Every read that is mapped to a {@code ProductDto} loads the category in the same statement, either
+ * through a fetch join or an entity graph, so a page of N products costs one select (plus the count
+ * query for paged searches) instead of 1 + N. The index rebuild queries use constructor projections
+ * and never create managed entities.
+ */
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID> , JpaSpecificationExecutor<Product> {
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findById(UUID productId);
+
+    // Used by the Specification-based search; the graph only applies to the select, not the count query
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Page<Product> findAll(Specification<Product> spec, Pageable pageable);
+
+    /**
+     * Streams the whole catalog through a forward-only cursor. Must be consumed inside a transaction and closed;
+     * the caller is expected to clear the persistence context as it goes.
+     */
+    @Query("select p from Product p left join fetch p.category")
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Product> streamAllWithCategory();
+
+    @Query("select p from Product p left join fetch p.category where p.productId in :productIds")
+    List<Product> findAllWithCategoryByProductIdIn(@Param("productIds") Collection<UUID> productIds);
+
+    @Query("select p from Product p left join fetch p.category where p.name in :names order by p.productId")
+    List<Product> findAllWithCategoryByNameIn(@Param("names") Collection<String> names);
+
+    @Query("select new com.fabrikka.product_service.dto.ProductFacetRow(p.productId, c.name, p.price) "
+            + "from Product p left join p.category c")
+    List<ProductFacetRow> findFacetRows();
+
+    @Query("select new com.fabrikka.product_service.dto.ProductFacetRow(p.productId, c.name, p.price) "
+            + "from Product p left join p.category c where p.productId in :productIds")
+    List<ProductFacetRow> findFacetRowsByProductIdIn(@Param("productIds") Collection<UUID> productIds);
+
+    @Query("select new com.fabrikka.product_service.dto.ProductTextRow(p.productId, p.name, p.description) from Product p")
+    List<ProductTextRow> findTextRows();
+
+    @Query("select new com.fabrikka.product_service.dto.ProductTextRow(p.productId, p.name, p.description) "
+            + "from Product p where p.productId in :productIds")
+    List<ProductTextRow> findTextRowsByProductIdIn(@Param("productIds") Collection<UUID> productIds);
 }
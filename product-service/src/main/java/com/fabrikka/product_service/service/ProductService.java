@@ -2,22 +2,30 @@ package com.fabrikka.product_service.service;
 
 import com.fabrikka.common.CategoryDto;
 import com.fabrikka.common.ProductDto;
+import com.fabrikka.product_service.dto.ProductFacetsDto;
+import com.fabrikka.product_service.dto.ProductSliceDto;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 public interface ProductService {
 
     public void createProduct(ProductDto productDto);
 
-    public List<ProductDto> getAllProducts();
+    /**
+     * Hands the whole catalog to the consumer in chunks of {@code product.export.chunk-size}, with stock attached.
+     */
+    void streamAllProducts(Consumer<List<ProductDto>> chunkConsumer);
 
     public ProductDto getProductById(UUID id);
 
+    List<ProductDto> getProductsByIds(List<UUID> productIds);
+
     public void deleteProduct(UUID id);
 
     public void updateProduct(UUID id, ProductDto productDto);
@@ -26,5 +34,20 @@ public interface ProductService {
 
     public void saveAll(List<ProductDto> productDto);
 
+    /**
+     * Creates products whose name is not in the catalog yet and updates the ones that are. Stock is only
+     * imported for products without an inventory row; live stock of existing products is never overwritten.
+     * Inventory is written once the products have committed, and a failure there still fails the call.
+     */
+    void upsertAll(List<ProductDto> productDtos);
+
     Page<ProductDto> getProductsPaginated(int page, int size, List<String> categories, Double minPrice, Double maxPrice, String sort);
+
+    ProductFacetsDto getFacets(List<String> categories, Double minPrice, Double maxPrice, String sort, int limit);
+
+    List<ProductDto> searchText(String query, int limit);
+
+    List<String> suggest(String prefix, int limit);
+
+    ProductSliceDto getProductsScroll(int size, List<String> categories, Double minPrice, Double maxPrice, String sort, String cursor);
 }
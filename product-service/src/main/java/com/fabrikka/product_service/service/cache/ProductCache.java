@@ -0,0 +1,71 @@
+package com.fabrikka.product_service.service.cache;
+
+import com.fabrikka.common.ProductDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache for catalog reads.
+ * <p>
+ * Holds product details by ID and search result pages by query key. Cached DTOs never carry stock;
+ * callers attach inventory after the lookup. Entries are evicted by size and TTL, and dropped
+ * explicitly when a {@code ProductChangedEvent} is received. Hit, miss and eviction counts are
+ * exported under the {@code cache.*} meters with {@code cache=products} and {@code cache=productPages}.
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<UUID, ProductDto> products;
+
+    private final Cache<String, Page<ProductDto>> pages;
+
+    public ProductCache(MeterRegistry meterRegistry,
+                        @Value("${product.cache.max-size:10000}") long maxSize,
+                        @Value("${product.cache.ttl-seconds:300}") long ttlSeconds,
+                        @Value("${product.cache.page-max-size:1000}") long pageMaxSize,
+                        @Value("${product.cache.page-ttl-seconds:30}") long pageTtlSeconds) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(pageMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(pageTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "productPages");
+    }
+
+    public ProductDto getProduct(UUID productId, Function<UUID, ProductDto> loader) {
+        return products.get(productId, loader);
+    }
+
+    public Page<ProductDto> getPage(String queryKey, Function<String, Page<ProductDto>> loader) {
+        return pages.get(queryKey, loader);
+    }
+
+    /**
+     * Drops the given products and every cached page, since any write can change page membership or order.
+     */
+    public void invalidate(Collection<UUID> productIds) {
+        products.invalidateAll(productIds);
+        pages.invalidateAll();
+    }
+
+    public void invalidateAll() {
+        products.invalidateAll();
+        pages.invalidateAll();
+    }
+}
@@ -0,0 +1,122 @@
+package com.fabrikka.product_service.service.cache;
+
+import com.fabrikka.common.InventoryDto;
+import com.fabrikka.product_service.config.InventoryClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local copy of stock levels, kept current from inventory-service's stock-changed events.
+ * <p>
+ * The map is filled from a full snapshot at startup and then updated in place by each event. An entry
+ * stays valid however long its stock goes unchanged, as long as the event stream is alive: inventory-service
+ * sends a heartbeat when it has nothing to report. If no event or heartbeat arrived within
+ * {@code inventory.near-cache.max-staleness-seconds}, changes may have been missed, so every entry is
+ * treated as missing and callers fall back to inventory-service. The first event after such a gap reloads
+ * the snapshot. While events keep flowing, catalog reads never leave this service.
+ */
+@Component
+public class StockNearCache {
+
+    Logger logger = LoggerFactory.getLogger(StockNearCache.class);
+
+    private final InventoryClient inventoryClient;
+
+    private final long maxStalenessMillis;
+
+    private final Map<UUID, StockEntry> stock = new ConcurrentHashMap<>();
+
+    // When the last event or snapshot arrived; 0 until either has
+    private volatile long lastEventAt;
+
+    public StockNearCache(InventoryClient inventoryClient,
+                          MeterRegistry meterRegistry,
+                          @Value("${inventory.near-cache.max-staleness-seconds:300}") long maxStalenessSeconds) {
+        this.inventoryClient = inventoryClient;
+        this.maxStalenessMillis = maxStalenessSeconds * 1000;
+        Gauge.builder("inventory.near-cache.size", stock, Map::size)
+                .description("Number of products with a locally cached stock level")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            List<InventoryDto> snapshot = inventoryClient.getAllInventories().getBody();
+            if (snapshot == null) {
+                return;
+            }
+            // An event applied while the snapshot was in flight is newer than the snapshot; keep it
+            snapshot.forEach(inventory -> stock.compute(inventory.getProductId(), (productId, current) ->
+                    current != null && current.confirmedAt() >= startedAt
+                            ? current
+                            : new StockEntry(inventory.getAvailableStock(), startedAt)));
+            lastEventAt = Math.max(lastEventAt, startedAt);
+            logger.info("Stock near-cache loaded with {} products", snapshot.size());
+        } catch (Exception e) {
+            logger.warn("Could not load stock snapshot, stock will be fetched on demand: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the cached stock of each product, or nothing while the event stream is silent beyond the staleness bound.
+     */
+    public Map<UUID, InventoryDto> getFresh(Collection<UUID> productIds) {
+        Map<UUID, InventoryDto> inventories = new HashMap<>();
+        if (!isStreamAlive(System.currentTimeMillis())) {
+            return inventories;
+        }
+        productIds.forEach(productId -> {
+            StockEntry entry = stock.get(productId);
+            if (entry != null) {
+                inventories.put(productId, new InventoryDto(productId, entry.availableStock()));
+            }
+        });
+        return inventories;
+    }
+
+    /**
+     * Applies a stock-changed event; an event without inventories is a heartbeat. The first event after a
+     * gap longer than the staleness bound reloads the snapshot, since events sent during the gap may be lost.
+     */
+    public void onEvent(Collection<InventoryDto> inventories) {
+        long now = System.currentTimeMillis();
+        boolean afterGap = lastEventAt > 0 && !isStreamAlive(now);
+        lastEventAt = now;
+        putAll(inventories);
+        if (afterGap) {
+            logger.warn("Stock events resumed after a gap, reloading the stock snapshot");
+            bootstrap();
+        }
+    }
+
+    public void putAll(Collection<InventoryDto> inventories) {
+        long now = System.currentTimeMillis();
+        inventories.forEach(inventory -> {
+            if (inventory.getProductId() != null && inventory.getAvailableStock() != null) {
+                stock.put(inventory.getProductId(), new StockEntry(inventory.getAvailableStock(), now));
+            }
+        });
+    }
+
+    private boolean isStreamAlive(long now) {
+        return now - lastEventAt <= maxStalenessMillis;
+    }
+
+    private record StockEntry(int availableStock, long confirmedAt) {
+    }
+}
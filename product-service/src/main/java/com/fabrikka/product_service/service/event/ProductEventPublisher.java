@@ -0,0 +1,58 @@
+package com.fabrikka.product_service.service.event;
+
+import com.fabrikka.product_service.dto.ProductChangedEvent;
+import com.fabrikka.product_service.service.cache.ProductCache;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Publishes {@link ProductChangedEvent}s so every product-service instance can drop stale catalog data.
+ * <p>
+ * Events are sent after the surrounding transaction commits, so no instance can reload the old row
+ * between invalidation and commit. The local cache is invalidated at the same point without waiting
+ * for the broker round-trip.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductEventPublisher {
+
+    public static final String PRODUCT_CHANGED_BINDING = "product-changed-out-0";
+
+    Logger logger = LoggerFactory.getLogger(ProductEventPublisher.class);
+
+    private final StreamBridge streamBridge;
+
+    private final ProductCache productCache;
+
+    public void publish(ProductChangedEvent.ChangeType changeType, Collection<UUID> productIds) {
+        ProductChangedEvent event = new ProductChangedEvent(changeType, new ArrayList<>(productIds));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(event);
+                }
+            });
+        } else {
+            send(event);
+        }
+    }
+
+    private void send(ProductChangedEvent event) {
+        productCache.invalidate(event.getProductIds());
+        try {
+            streamBridge.send(PRODUCT_CHANGED_BINDING, event);
+        } catch (Exception e) {
+            logger.warn("Error occurred while publishing product change event: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.fabrikka.product_service.service.export;
+
+import com.fabrikka.common.ProductDto;
+import com.fabrikka.product_service.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serializes the catalog straight onto a response stream as it is read, flushing after every chunk,
+ * so neither the service nor the client-facing buffer ever holds the full product list.
+ * <p>
+ * The status line is long gone when a late chunk fails, so a failure cannot become an error response.
+ * Instead the exception is rethrown without closing the JSON, and the container drops the connection
+ * rather than terminating the chunked body; clients see a broken transfer, never a short catalog.
+ */
+@Component
+public class ProductExportWriter {
+
+    Logger logger = LoggerFactory.getLogger(ProductExportWriter.class);
+
+    private final ProductService productService;
+
+    private final ObjectMapper objectMapper;
+
+    public ProductExportWriter(ProductService productService, ObjectMapper objectMapper) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes one product per line (NDJSON).
+     */
+    public void writeNdjson(OutputStream out) throws IOException {
+        AtomicLong written = new AtomicLong();
+        try (JsonGenerator generator = createGenerator(out)) {
+            try {
+                productService.streamAllProducts(chunk -> {
+                    try {
+                        for (ProductDto product : chunk) {
+                            generator.writeObject(product);
+                            generator.writeRaw('\n');
+                        }
+                        generator.flush();
+                        written.addAndGet(chunk.size());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (RuntimeException e) {
+                logger.error("Product export aborted after {} products, exception:{} ", written.get(), e.getMessage());
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Writes a single JSON array, so existing clients of {@code /products/all} can read it unchanged.
+     */
+    public void writeJsonArray(OutputStream out) throws IOException {
+        AtomicLong written = new AtomicLong();
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartArray();
+            try {
+                productService.streamAllProducts(chunk -> {
+                    try {
+                        for (ProductDto product : chunk) {
+                            generator.writeObject(product);
+                        }
+                        generator.flush();
+                        written.addAndGet(chunk.size());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (RuntimeException e) {
+                logger.error("Product export aborted after {} products, exception:{} ", written.get(), e.getMessage());
+                throw e;
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // Root values are separated by our own newlines, and the servlet container owns the stream
+        generator.setRootValueSeparator(null);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Closing after a failure must not write the missing ']' and pass a truncated array off as complete
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        return generator;
+    }
+}
@@ -4,27 +4,58 @@ import com.fabrikka.common.CategoryDto;
 import com.fabrikka.common.InventoryDto;
 import com.fabrikka.common.ProductDto;
 import com.fabrikka.product_service.config.InventoryClient;
+import com.fabrikka.product_service.dto.ProductChangedEvent;
+import com.fabrikka.product_service.dto.ProductFacetsDto;
+import com.fabrikka.product_service.dto.ProductSliceDto;
 import com.fabrikka.product_service.entity.Category;
 import com.fabrikka.product_service.entity.Product;
+import com.fabrikka.product_service.exception.ProductBatchTooLargeException;
 import com.fabrikka.product_service.repository.CategoryRepository;
+import com.fabrikka.product_service.repository.ProductJdbcRepository;
 import com.fabrikka.product_service.repository.ProductRepository;
 import com.fabrikka.product_service.service.ProductService;
+import com.fabrikka.product_service.service.cache.ProductCache;
+import com.fabrikka.product_service.service.cache.StockNearCache;
+import com.fabrikka.product_service.service.event.ProductEventPublisher;
+import com.fabrikka.product_service.service.loader.InventoryBatchLoader;
+import com.fabrikka.product_service.service.pagination.ProductCursor;
+import com.fabrikka.product_service.service.search.ProductFacetIndex;
+import com.fabrikka.product_service.service.search.ProductTextIndex;
 import com.fabrikka.product_service.service.specification.ProductSpecification;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -37,8 +68,36 @@ public class ProductServiceImpl implements ProductService {
 
     final CategoryRepository categoryRepository;
 
+    final ProductJdbcRepository productJdbcRepository;
+
     final InventoryClient inventoryClient;
 
+    final InventoryBatchLoader inventoryBatchLoader;
+
+    final ProductCache productCache;
+
+    final StockNearCache stockNearCache;
+
+    final ProductEventPublisher productEventPublisher;
+
+    final ProductFacetIndex productFacetIndex;
+
+    final ProductTextIndex productTextIndex;
+
+    final EntityManager entityManager;
+
+    @Qualifier("inventoryExecutor")
+    final Executor inventoryExecutor;
+
+    @Value("${inventory.bulk.chunk-size:500}")
+    int inventoryChunkSize;
+
+    @Value("${product.batch.max-size:200}")
+    int productBatchMaxSize;
+
+    @Value("${product.export.chunk-size:500}")
+    int productExportChunkSize;
+
 
     @Override
     public void createProduct(ProductDto productDto) {
@@ -54,25 +113,65 @@ public class ProductServiceImpl implements ProductService {
         InventoryDto inventory =  productDto.getInventory();
         inventory.setProductId(product.getProductId());
         createInventory(inventory);
+        productEventPublisher.publish(ProductChangedEvent.ChangeType.CREATED, List.of(product.getProductId()));
 
     }
 
     @Override
-    public List<ProductDto> getAllProducts() {
-        List<Product> products = productRepository.findAll();
-        return products.stream().map(this::convertToProductDto).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<List<ProductDto>> chunkConsumer) {
+        // Only one chunk of entities and DTOs is alive at a time, whatever the catalog size
+        try (Stream<Product> stream = productRepository.streamAllWithCategory()) {
+            List<Product> chunk = new ArrayList<>(productExportChunkSize);
+            Iterator<Product> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() >= productExportChunkSize || !iterator.hasNext()) {
+                    Map<UUID, InventoryDto> inventories = fetchInventories(chunk);
+                    chunkConsumer.accept(chunk.stream()
+                            .map(product -> convertToProductDto(product, inventories))
+                            .collect(Collectors.toList()));
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
     }
 
     @Override
     public ProductDto getProductById(UUID id) {
-        Product product = productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
-        return convertToProductDto(product);
+        ProductDto product = productCache.getProduct(id, productId -> toProductDto(
+                productRepository.findById(productId).orElseThrow(() -> new RuntimeException("Product not found")), null));
+        // Stock is never cached with the product; it comes from the stock near-cache or the loader
+        return withInventory(product, loadInventories(List.of(id)).get(id));
+    }
+
+    @Override
+    public List<ProductDto> getProductsByIds(List<UUID> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return List.of();
+        }
+        if (productIds.size() > productBatchMaxSize) {
+            throw new ProductBatchTooLargeException(productIds.size(), productBatchMaxSize);
+        }
+        // One query with the category fetch-joined and one bulk stock call; unknown IDs are skipped,
+        // the rest come back in request order
+        Map<UUID, Product> products = productRepository.findAllWithCategoryByProductIdIn(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, product -> product));
+        Map<UUID, InventoryDto> inventories = fetchInventories(products.values());
+        return productIds.stream()
+                .distinct()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(product -> convertToProductDto(product, inventories))
+                .collect(Collectors.toList());
     }
 
     @Override
     public void deleteProduct(UUID id) {
         Product product = productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
         productRepository.delete(product);
+        productEventPublisher.publish(ProductChangedEvent.ChangeType.DELETED, List.of(id));
     }
 
     @Override
@@ -87,6 +186,7 @@ public class ProductServiceImpl implements ProductService {
         product.setCategory(category);
         productRepository.save(product);
         inventoryClient.updateInventory(product.getProductId(), productDto.getInventory().getAvailableStock());
+        productEventPublisher.publish(ProductChangedEvent.ChangeType.UPDATED, List.of(id));
     }
 
     @Override
@@ -99,50 +199,201 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public void saveAll(List<ProductDto> productDtos) {
-        // Map product name to ProductDto for quick lookup
-        Map<String, ProductDto> dtoMap = productDtos.stream()
-                .collect(Collectors.toMap(ProductDto::getName, dto -> dto));
+        long start = System.nanoTime();
+
+        // Resolve every distinct category up front: one IN query, and one batched insert for the missing ones
+        Map<String, Category> categories = resolveCategories(productDtos);
 
-        List<Product> products = productDtos.stream().map(dto -> {
+        // IDs are assigned here so products can be paired with their DTOs by ID, even when names repeat
+        Map<UUID, ProductDto> dtoMap = new HashMap<>();
+        List<Product> savedProducts = productDtos.stream().map(dto -> {
             Product product = new Product();
+            product.setProductId(UUID.randomUUID());
             product.setName(dto.getName());
             product.setDescription(dto.getDescription());
             product.setPrice(dto.getPrice());
             product.setImageUrl(dto.getImageUrl());
-            // Reuse existing categories or create new ones to avoid duplicates
-            Category category = categoryRepository.findByName(dto.getCategory().getName())
-                    .orElse(new Category(dto.getCategory().getName()));
-            product.setCategory(category);
+            product.setCategory(categories.get(dto.getCategory().getName()));
+            dtoMap.put(product.getProductId(), dto);
             return product;
         }).collect(Collectors.toList());
 
-        List<Product> savedProducts = productRepository.saveAll(products);
+        productJdbcRepository.insertAll(savedProducts);
 
-        // To improve performance for this bulk operation, processing inventory creation in parallel.
-        savedProducts.parallelStream().forEach(product -> {
-            ProductDto dto = dtoMap.get(product.getName());
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        logger.info("Bulk inserted {} products in {} ms ({} rows/s)", savedProducts.size(),
+                Math.round(seconds * 1000), seconds > 0 ? Math.round(savedProducts.size() / seconds) : savedProducts.size());
+
+        List<InventoryDto> inventories = savedProducts.stream().map(product -> {
             InventoryDto inventory = new InventoryDto();
             inventory.setProductId(product.getProductId());
-            inventory.setAvailableStock(dto.getInventory().getAvailableStock());
-            createInventory(inventory);
+            inventory.setAvailableStock(dtoMap.get(product.getProductId()).getInventory().getAvailableStock());
+            return inventory;
+        }).collect(Collectors.toList());
+        createInventoriesAfterCommit(inventories);
+        productEventPublisher.publish(ProductChangedEvent.ChangeType.CREATED,
+                savedProducts.stream().map(Product::getProductId).collect(Collectors.toList()));
+    }
+
+    @Override
+    public void upsertAll(List<ProductDto> productDtos) {
+        Map<String, Category> categories = resolveCategories(productDtos);
+
+        // Name is the import key; if the catalog already holds several products with one name, the one with the
+        // lowest ID is updated (the query is ordered by ID), so repeated imports always pick the same row
+        Map<String, Product> existing = productRepository.findAllWithCategoryByNameIn(productDtos.stream()
+                        .map(ProductDto::getName)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Product::getName, product -> product, (first, second) -> first));
+
+        List<Product> created = new ArrayList<>();
+        Map<UUID, InventoryDto> inventories = new LinkedHashMap<>();
+        for (ProductDto dto : productDtos) {
+            Product product = existing.get(dto.getName());
+            if (product == null) {
+                product = new Product();
+                product.setProductId(UUID.randomUUID());
+                product.setName(dto.getName());
+                existing.put(product.getName(), product);
+                created.add(product);
+            }
+            // Managed products are written by dirty checking at commit, new ones by the JDBC batch insert below
+            product.setDescription(dto.getDescription());
+            product.setPrice(dto.getPrice());
+            product.setImageUrl(dto.getImageUrl());
+            product.setCategory(categories.get(dto.getCategory().getName()));
+            inventories.put(product.getProductId(), new InventoryDto(product.getProductId(), dto.getInventory().getAvailableStock()));
+        }
+
+        productJdbcRepository.insertAll(created);
+        Set<UUID> createdIds = created.stream().map(Product::getProductId).collect(Collectors.toSet());
+        List<UUID> updatedIds = inventories.keySet().stream()
+                .filter(productId -> !createdIds.contains(productId))
+                .collect(Collectors.toList());
+        logger.info("Upserted {} products: {} created, {} updated", inventories.size(), created.size(), updatedIds.size());
+
+        // Every row is sent, not only the created ones: inventory-service leaves existing rows alone, and a
+        // product whose inventory call failed after its commit gets its row when the chunk is retried
+        createInventoriesAfterCommit(new ArrayList<>(inventories.values()));
+        if (!createdIds.isEmpty()) {
+            productEventPublisher.publish(ProductChangedEvent.ChangeType.CREATED, new ArrayList<>(createdIds));
+        }
+        if (!updatedIds.isEmpty()) {
+            productEventPublisher.publish(ProductChangedEvent.ChangeType.UPDATED, updatedIds);
+        }
+    }
+
+    /**
+     * Sends the stock to inventory-service once the products are committed, so a rolled-back import
+     * leaves no inventory rows behind and the remote calls do not hold the transaction open.
+     */
+    private void createInventoriesAfterCommit(List<InventoryDto> inventories) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                createInventories(inventories);
+            }
         });
     }
 
+    private Map<String, Category> resolveCategories(List<ProductDto> productDtos) {
+        Set<String> names = productDtos.stream()
+                .map(dto -> dto.getCategory().getName())
+                .collect(Collectors.toSet());
+        Map<String, Category> categories = categoryRepository.findByNameIn(names).stream()
+                .collect(Collectors.toMap(Category::getName, category -> category, (first, second) -> first, HashMap::new));
+        List<Category> missing = names.stream()
+                .filter(name -> !categories.containsKey(name))
+                .map(Category::new)
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            // Flushed so the JDBC product inserts below can reference the new category rows
+            categoryRepository.saveAllAndFlush(missing).forEach(category -> categories.put(category.getName(), category));
+        }
+        return categories;
+    }
+
     @Override
     public Page<ProductDto> getProductsPaginated(int page, int size, List<String> categories, Double minPrice, Double maxPrice, String sort) {
-        // 1. Build Pageable with sorting
-        Pageable pageable = createPageable(page, size, sort);
+        String cacheKey = page + "|" + size + "|" + categories + "|" + minPrice + "|" + maxPrice + "|" + sort;
+        Page<ProductDto> productPage = productCache.getPage(cacheKey, key -> {
+            // 1. Build Pageable with sorting
+            Pageable pageable = createPageable(page, size, sort);
+
+            // 2. Build the dynamic query Specification
+            Specification<Product> spec = buildSpecification(categories, minPrice, maxPrice);
+
+            // 3. Query the repository and map Page<Product> to Page<ProductDto> without stock.
+            // The .map() function on a Page object is the ideal way to convert content
+            // while preserving pagination information (total pages, size, etc.).
+            return productRepository.findAll(spec, pageable).map(product -> toProductDto(product, null));
+        });
+
+        // 4. Resolve stock for the whole page through the coalescing loader, so concurrent
+        // searches hitting the same hot products share bulk inventory calls
+        Map<UUID, InventoryDto> inventories = loadInventories(productPage.getContent().stream()
+                .map(ProductDto::getProductId)
+                .collect(Collectors.toSet()));
+        return productPage.map(product -> withInventory(product, inventories.get(product.getProductId())));
+    }
 
-        // 2. Build the dynamic query Specification
+    @Override
+    @Transactional(readOnly = true)
+    public ProductFacetsDto getFacets(List<String> categories, Double minPrice, Double maxPrice, String sort, int limit) {
+        // Answered entirely from the in-memory index; no database round-trip
+        return productFacetIndex.query(categories, minPrice, maxPrice, sort, limit);
+    }
+
+    @Override
+    public List<ProductDto> searchText(String query, int limit) {
+        // Rank in the text index, then load only the hits in one query and keep the ranking order
+        List<UUID> rankedIds = productTextIndex.search(query, limit);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Product> products = productRepository.findAllWithCategoryByProductIdIn(rankedIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, product -> product));
+        Map<UUID, InventoryDto> inventories = loadInventories(products.keySet());
+        return rankedIds.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(product -> convertToProductDto(product, inventories))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int limit) {
+        return productTextIndex.suggest(prefix, limit);
+    }
+
+    @Override
+    public ProductSliceDto getProductsScroll(int size, List<String> categories, Double minPrice, Double maxPrice, String sort, String cursor) {
+        // A cursor carries the sort it was issued for, so follow-up windows stay consistent with the first one
+        ProductCursor position = cursor != null && !cursor.isEmpty() ? ProductCursor.decode(cursor) : null;
+        String normalizedSort = position != null ? position.getSort() : ProductCursor.normalizeSort(sort);
+
+        // Seek past the last returned (sort key, productId) instead of using an offset, and skip the count query
         Specification<Product> spec = buildSpecification(categories, minPrice, maxPrice);
+        // project("category") makes the fluent query load the category through an entity graph
+        Window<Product> window = productRepository.findBy(spec, query -> query
+                .project("category")
+                .sortBy(ProductCursor.toSort(normalizedSort))
+                .limit(size)
+                .scroll(position != null ? position.toScrollPosition() : ScrollPosition.keyset()));
 
-        // 3. Query the repository using the specification and pageable
-        Page<Product> productPage = productRepository.findAll(spec, pageable);
+        Map<UUID, InventoryDto> inventories = loadInventories(window.stream()
+                .map(Product::getProductId)
+                .collect(Collectors.toSet()));
+        List<ProductDto> content = window.stream()
+                .map(product -> convertToProductDto(product, inventories))
+                .collect(Collectors.toList());
 
-        // 4. Map Page<Product> to Page<ProductDto>
-        // The .map() function on a Page object is the ideal way to convert content
-        // while preserving pagination information (total pages, size, etc.).
-        return productPage.map(this::convertToProductDto);
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            nextCursor = ProductCursor.from(normalizedSort, last).encode();
+        }
+        return new ProductSliceDto(content, content.size(), window.hasNext(), nextCursor);
     }
 
     private Specification<Product> buildSpecification(List<String> categories, Double minPrice, Double maxPrice) {
@@ -178,16 +429,66 @@ public class ProductServiceImpl implements ProductService {
         return PageRequest.of(page, size, sortOrder);
     }
 
-    private ProductDto convertToProductDto(Product product) {
-        // NOTE: This results in N+1 network calls (1 for the page + N for inventories).
-        // A future optimization would be to fetch all required inventories in a single bulk call.
-        InventoryDto inventory;
+    /**
+     * Takes stock from the near-cache and fetches the remaining products in one call to inventory-service.
+     * Products without an inventory row, or all products if the call fails, are mapped to zero stock.
+     */
+    private Map<UUID, InventoryDto> fetchInventories(Collection<Product> products) {
+        Set<UUID> productIds = products.stream()
+                .map(Product::getProductId)
+                .collect(Collectors.toSet());
+        Map<UUID, InventoryDto> inventories = stockNearCache.getFresh(productIds);
+        if (inventories.size() == productIds.size()) {
+            return inventories;
+        }
+        Set<UUID> missing = productIds.stream()
+                .filter(productId -> !inventories.containsKey(productId))
+                .collect(Collectors.toSet());
         try {
-            inventory = inventoryClient.getInventory(product.getProductId()).getBody();
+            List<InventoryDto> body = inventoryClient.getInventories(missing).getBody();
+            if (body != null) {
+                stockNearCache.putAll(body);
+                body.forEach(inventory -> inventories.put(inventory.getProductId(), inventory));
+            }
         } catch (Exception e) {
-            logger.error("Could not fetch inventory for product :{},exception:{} " , product.getProductId() , e.getMessage());
-            inventory = new InventoryDto(product.getProductId(), 0);
+            logger.error("Could not fetch inventory for {} products, exception:{} ", missing.size(), e.getMessage());
         }
+        productIds.forEach(productId -> inventories.computeIfAbsent(productId, id -> new InventoryDto(id, 0)));
+        return inventories;
+    }
+
+    /**
+     * Takes stock from the near-cache and resolves only the remaining products through the batch loader.
+     */
+    private Map<UUID, InventoryDto> loadInventories(Collection<UUID> productIds) {
+        Map<UUID, InventoryDto> inventories = stockNearCache.getFresh(productIds);
+        List<UUID> missing = productIds.stream()
+                .filter(productId -> !inventories.containsKey(productId))
+                .collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            return inventories;
+        }
+        Map<UUID, CompletableFuture<InventoryDto>> futures = inventoryBatchLoader.loadMany(missing);
+        futures.forEach((productId, future) -> inventories.put(productId, awaitInventory(productId, future)));
+        return inventories;
+    }
+
+    private InventoryDto awaitInventory(UUID productId, CompletableFuture<InventoryDto> future) {
+        try {
+            InventoryDto inventory = future.join();
+            stockNearCache.putAll(List.of(inventory));
+            return inventory;
+        } catch (Exception e) {
+            logger.error("Could not fetch inventory for product :{},exception:{} " , productId , e.getMessage());
+            return new InventoryDto(productId, 0);
+        }
+    }
+
+    private ProductDto convertToProductDto(Product product, Map<UUID, InventoryDto> inventories) {
+        return toProductDto(product, inventories.get(product.getProductId()));
+    }
+
+    private ProductDto toProductDto(Product product, InventoryDto inventory) {
         return new ProductDto(
                 product.getName(), product.getDescription(), product.getPrice(),
                 product.getImageUrl(), new CategoryDto(product.getCategory().getName()),
@@ -195,8 +496,32 @@ public class ProductServiceImpl implements ProductService {
         );
     }
 
+    /**
+     * Returns a copy of a (possibly cached) product with the given stock attached, leaving the original untouched.
+     */
+    private ProductDto withInventory(ProductDto product, InventoryDto inventory) {
+        return new ProductDto(
+                product.getName(), product.getDescription(), product.getPrice(),
+                product.getImageUrl(), product.getCategory(),
+                inventory, product.getProductId()
+        );
+    }
+
     public void createInventory(InventoryDto inventoryDto) {
         inventoryClient.addInventory(inventoryDto);
     }
 
+    /**
+     * Creates inventory rows in bounded-size bulk calls on the dedicated inventory executor and
+     * waits for all of them, so a failed chunk still fails the import as before.
+     */
+    public void createInventories(List<InventoryDto> inventories) {
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int from = 0; from < inventories.size(); from += inventoryChunkSize) {
+            List<InventoryDto> chunk = inventories.subList(from, Math.min(from + inventoryChunkSize, inventories.size()));
+            calls.add(CompletableFuture.runAsync(() -> inventoryClient.addAllInventory(chunk), inventoryExecutor));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+    }
+
 }
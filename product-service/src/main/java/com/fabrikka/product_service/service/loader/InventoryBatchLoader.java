@@ -0,0 +1,172 @@
+package com.fabrikka.product_service.service.loader;
+
+import com.fabrikka.common.InventoryDto;
+import com.fabrikka.product_service.config.InventoryClient;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataLoader-style front for {@link InventoryClient#getInventory}.
+ * <p>
+ * Lookups arriving within a short window are collected and resolved with a single call to
+ * {@code /inventory/batch}. A batch is dispatched when the window elapses or when it reaches
+ * the configured maximum size, whichever comes first. Concurrent lookups of the same product
+ * inside one window share the same future.
+ */
+@Component
+public class InventoryBatchLoader {
+
+    Logger logger = LoggerFactory.getLogger(InventoryBatchLoader.class);
+
+    private final InventoryClient inventoryClient;
+
+    private final long maxWaitMicros;
+
+    private final int maxBatchSize;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final ExecutorService fetchExecutor;
+
+    private final DistributionSummary batchSizeSummary;
+
+    private final Timer waitTimer;
+
+    private final Object lock = new Object();
+
+    private Map<UUID, PendingLoad> pending = new LinkedHashMap<>();
+
+    public InventoryBatchLoader(InventoryClient inventoryClient,
+                                MeterRegistry meterRegistry,
+                                @Value("${inventory.loader.max-wait-micros:2000}") long maxWaitMicros,
+                                @Value("${inventory.loader.max-batch-size:64}") int maxBatchSize,
+                                @Value("${inventory.loader.fetch-threads:4}") int fetchThreads) {
+        this.inventoryClient = inventoryClient;
+        this.maxWaitMicros = maxWaitMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-loader-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.fetchExecutor = Executors.newFixedThreadPool(fetchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "inventory-loader-fetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSizeSummary = DistributionSummary.builder("inventory.loader.batch.size")
+                .description("Number of distinct product IDs per bulk inventory fetch")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("inventory.loader.wait")
+                .description("Time a lookup waits before its batch is dispatched")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a stock lookup for the given product and returns a future completed once its batch is fetched.
+     * The future completes exceptionally if the bulk call fails or the product has no inventory row.
+     */
+    public CompletableFuture<InventoryDto> load(UUID productId) {
+        Map<UUID, PendingLoad> ready = null;
+        CompletableFuture<InventoryDto> future;
+        synchronized (lock) {
+            PendingLoad existing = pending.get(productId);
+            if (existing != null) {
+                return existing.future;
+            }
+            PendingLoad load = new PendingLoad(new CompletableFuture<>(), System.nanoTime());
+            pending.put(productId, load);
+            future = load.future;
+            if (pending.size() >= maxBatchSize) {
+                ready = swapPending();
+            } else if (pending.size() == 1) {
+                // First key of a new window; everything arriving until the timer fires joins this batch.
+                scheduler.schedule(this::dispatchPending, maxWaitMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+        return future;
+    }
+
+    /**
+     * Queues lookups for several products at once, keyed by product ID.
+     */
+    public Map<UUID, CompletableFuture<InventoryDto>> loadMany(Collection<UUID> productIds) {
+        Map<UUID, CompletableFuture<InventoryDto>> futures = new HashMap<>();
+        productIds.forEach(productId -> futures.put(productId, load(productId)));
+        return futures;
+    }
+
+    private void dispatchPending() {
+        Map<UUID, PendingLoad> ready;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            ready = swapPending();
+        }
+        dispatch(ready);
+    }
+
+    private Map<UUID, PendingLoad> swapPending() {
+        Map<UUID, PendingLoad> ready = pending;
+        pending = new LinkedHashMap<>();
+        return ready;
+    }
+
+    private void dispatch(Map<UUID, PendingLoad> batch) {
+        long now = System.nanoTime();
+        batch.values().forEach(load -> waitTimer.record(now - load.enqueuedAt, TimeUnit.NANOSECONDS));
+        batchSizeSummary.record(batch.size());
+        fetchExecutor.execute(() -> fetch(batch));
+    }
+
+    private void fetch(Map<UUID, PendingLoad> batch) {
+        try {
+            List<InventoryDto> inventories = inventoryClient.getInventories(batch.keySet()).getBody();
+            if (inventories != null) {
+                inventories.forEach(inventory -> {
+                    PendingLoad load = batch.get(inventory.getProductId());
+                    if (load != null) {
+                        load.future.complete(inventory);
+                    }
+                });
+            }
+            batch.forEach((productId, load) -> load.future.completeExceptionally(
+                    new IllegalStateException("Inventory not found for product ID: " + productId)));
+        } catch (Exception e) {
+            logger.error("Bulk inventory fetch failed for {} products, exception:{} ", batch.size(), e.getMessage());
+            batch.values().forEach(load -> load.future.completeExceptionally(e));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatchPending();
+        scheduler.shutdown();
+        fetchExecutor.shutdown();
+    }
+
+    private record PendingLoad(CompletableFuture<InventoryDto> future, long enqueuedAt) {
+    }
+}
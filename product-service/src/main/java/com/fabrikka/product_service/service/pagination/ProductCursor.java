@@ -0,0 +1,112 @@
+package com.fabrikka.product_service.service.pagination;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token for keyset pagination over products.
+ * <p>
+ * A cursor records the sort it was issued for plus the (sort key, productId) values of the last
+ * row returned, so the next window can seek straight past it instead of counting skipped rows.
+ * {@code productId} is always the final sort key, which makes the ordering total.
+ */
+public final class ProductCursor {
+
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("name", "price");
+
+    private static final String TIE_BREAKER = "productId";
+
+    private final String sort;
+
+    private final Map<String, Object> keys;
+
+    private ProductCursor(String sort, Map<String, Object> keys) {
+        this.sort = sort;
+        this.keys = keys;
+    }
+
+    /**
+     * Normalizes a "property,direction" sort parameter. Anything that is not a sortable
+     * property with a valid direction falls back to ordering by productId only.
+     */
+    public static String normalizeSort(String sort) {
+        if (sort == null) {
+            return "";
+        }
+        String[] sortParams = sort.split(",");
+        if (sortParams.length != 2 || !SORTABLE_PROPERTIES.contains(sortParams[0])) {
+            return "";
+        }
+        try {
+            return sortParams[0] + "," + Sort.Direction.fromString(sortParams[1]).name().toLowerCase();
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    public static Sort toSort(String normalizedSort) {
+        if (normalizedSort.isEmpty()) {
+            return Sort.by(Sort.Direction.ASC, TIE_BREAKER);
+        }
+        String[] sortParams = normalizedSort.split(",");
+        return Sort.by(Sort.Direction.fromString(sortParams[1]), sortParams[0], TIE_BREAKER);
+    }
+
+    public static ProductCursor from(String normalizedSort, KeysetScrollPosition position) {
+        return new ProductCursor(normalizedSort, new LinkedHashMap<>(position.getKeys()));
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public KeysetScrollPosition toScrollPosition() {
+        return ScrollPosition.forward(keys);
+    }
+
+    public String encode() {
+        StringBuilder payload = new StringBuilder(sort);
+        keys.forEach((property, value) -> payload.append('|').append(property).append('=')
+                .append(Base64.getUrlEncoder().withoutPadding()
+                        .encodeToString(String.valueOf(value).getBytes(StandardCharsets.UTF_8))));
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = payload.split("\\|");
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 1; i < parts.length; i++) {
+                String[] entry = parts[i].split("=", 2);
+                String value = new String(Base64.getUrlDecoder().decode(entry[1]), StandardCharsets.UTF_8);
+                keys.put(entry[0], parseKey(entry[0], value));
+            }
+            if (!keys.containsKey(TIE_BREAKER)) {
+                throw new IllegalArgumentException("Cursor is missing " + TIE_BREAKER);
+            }
+            return new ProductCursor(normalizeSort(parts[0]), keys);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    private static Object parseKey(String property, String value) {
+        return switch (property) {
+            case "price" -> new BigDecimal(value);
+            case "productId" -> UUID.fromString(value);
+            case "name" -> value;
+            default -> throw new IllegalArgumentException("Unsupported cursor key: " + property);
+        };
+    }
+}
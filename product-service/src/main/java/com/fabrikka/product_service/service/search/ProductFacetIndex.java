@@ -0,0 +1,344 @@
+package com.fabrikka.product_service.service.search;
+
+import com.fabrikka.product_service.dto.ProductFacetRow;
+import com.fabrikka.product_service.dto.ProductFacetsDto;
+import com.fabrikka.product_service.repository.ProductRepository;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over the catalog for category/price filtering and facet counts.
+ * <p>
+ * Every product gets a dense int ordinal. Each category maps to a {@link RoaringBitmap} of
+ * ordinals, and prices are kept in a primitive array sorted by price so a range filter is two
+ * binary searches. The index is loaded once at startup and then kept current from product change
+ * events. A change is merged into the sorted price arrays in one linear pass over primitives, so
+ * queries never re-sort and only ever take the read lock. Ordinals of deleted products are reused
+ * by the next products added.
+ */
+@Component
+public class ProductFacetIndex {
+
+    Logger logger = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<UUID, Integer> ordinalsById = new HashMap<>();
+
+    private List<UUID> idsByOrdinal = new ArrayList<>();
+
+    private List<String> categoriesByOrdinal = new ArrayList<>();
+
+    private double[] pricesByOrdinal = new double[0];
+
+    private Map<String, RoaringBitmap> categoryBitmaps = new HashMap<>();
+
+    private RoaringBitmap live = new RoaringBitmap();
+
+    // Ordinals freed by deleted products, handed out again before the ordinal range grows
+    private RoaringBitmap freeOrdinals = new RoaringBitmap();
+
+    // Ordinals with a price, sorted by price; the two arrays are index-aligned.
+    private double[] sortedPrices = new double[0];
+
+    private int[] sortedOrdinals = new int[0];
+
+    public ProductFacetIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ProductFacetRow> products = productRepository.findFacetRows();
+        lock.writeLock().lock();
+        try {
+            ordinalsById = new HashMap<>(products.size() * 2);
+            idsByOrdinal = new ArrayList<>(products.size());
+            categoriesByOrdinal = new ArrayList<>(products.size());
+            pricesByOrdinal = new double[Math.max(16, products.size())];
+            categoryBitmaps = new HashMap<>();
+            live = new RoaringBitmap();
+            freeOrdinals = new RoaringBitmap();
+            products.forEach(this::upsert);
+            int[] ordinals = live.stream()
+                    .filter(ordinal -> !Double.isNaN(pricesByOrdinal[ordinal]))
+                    .toArray();
+            sortedPrices = pricesOf(ordinals);
+            sortByPrice(ordinals, sortedPrices);
+            sortedOrdinals = ordinals;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product facet index built with {} products", products.size());
+    }
+
+    /**
+     * Re-reads the given products and applies them to the index; IDs no longer in the repository are removed.
+     */
+    public void refresh(Collection<UUID> productIds) {
+        List<ProductFacetRow> products = productRepository.findFacetRowsByProductIdIn(productIds);
+        Set<UUID> removed = new HashSet<>(productIds);
+        lock.writeLock().lock();
+        try {
+            RoaringBitmap touched = new RoaringBitmap();
+            for (ProductFacetRow product : products) {
+                removed.remove(product.getProductId());
+                touched.add(upsert(product));
+            }
+            // Removed after the upserts, so an ordinal freed here is not reused within the same refresh
+            for (UUID productId : removed) {
+                Integer ordinal = ordinalsById.get(productId);
+                if (ordinal != null) {
+                    touched.add(ordinal.intValue());
+                    remove(productId);
+                }
+            }
+            mergePrices(touched);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Filters by categories (any of) and an inclusive price range, optionally sorted by price.
+     *
+     * @param sort  "price,asc" or "price,desc"; anything else keeps insertion order
+     * @param limit maximum number of IDs to return
+     */
+    public ProductFacetsDto query(List<String> categories, Double minPrice, Double maxPrice, String sort, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap priceMatches = minPrice == null && maxPrice == null ? live : priceRange(minPrice, maxPrice);
+
+            // Facet counts ignore the category filter itself, so they show what each category would add.
+            Map<String, Long> categoryCounts = new TreeMap<>();
+            categoryBitmaps.forEach((category, bitmap) -> {
+                long count = RoaringBitmap.andCardinality(bitmap, priceMatches);
+                if (count > 0) {
+                    categoryCounts.put(category, count);
+                }
+            });
+
+            RoaringBitmap matches;
+            if (categories != null && !categories.isEmpty()) {
+                RoaringBitmap categoryMatches = new RoaringBitmap();
+                categories.stream()
+                        .map(categoryBitmaps::get)
+                        .filter(bitmap -> bitmap != null)
+                        .forEach(categoryMatches::or);
+                matches = RoaringBitmap.and(categoryMatches, priceMatches);
+            } else {
+                matches = priceMatches;
+            }
+
+            return new ProductFacetsDto(collect(matches, sort, limit), matches.getLongCardinality(), categoryCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<UUID> collect(RoaringBitmap matches, String sort, int limit) {
+        List<UUID> productIds = new ArrayList<>(Math.min(limit, matches.getCardinality()));
+        if ("price,asc".equalsIgnoreCase(sort) || "price,desc".equalsIgnoreCase(sort)) {
+            boolean ascending = sort.toLowerCase().endsWith("asc");
+            for (int i = 0; i < sortedOrdinals.length && productIds.size() < limit; i++) {
+                int ordinal = sortedOrdinals[ascending ? i : sortedOrdinals.length - 1 - i];
+                if (matches.contains(ordinal)) {
+                    productIds.add(idsByOrdinal.get(ordinal));
+                }
+            }
+            // Products without a price sort last in either direction
+            IntIterator unpriced = matches.getIntIterator();
+            while (unpriced.hasNext() && productIds.size() < limit) {
+                int ordinal = unpriced.next();
+                if (Double.isNaN(pricesByOrdinal[ordinal])) {
+                    productIds.add(idsByOrdinal.get(ordinal));
+                }
+            }
+        } else {
+            IntIterator iterator = matches.getIntIterator();
+            while (iterator.hasNext() && productIds.size() < limit) {
+                productIds.add(idsByOrdinal.get(iterator.next()));
+            }
+        }
+        return productIds;
+    }
+
+    private RoaringBitmap priceRange(Double minPrice, Double maxPrice) {
+        int from = minPrice == null ? 0 : lowerBound(minPrice);
+        int to = maxPrice == null ? sortedPrices.length : upperBound(maxPrice);
+        RoaringBitmap range = new RoaringBitmap();
+        if (from < to) {
+            range.addN(Arrays.copyOfRange(sortedOrdinals, from, to), 0, to - from);
+        }
+        range.and(live);
+        return range;
+    }
+
+    // First index with price >= value
+    private int lowerBound(double value) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First index with price > value
+    private int upperBound(double value) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Caller must hold the write lock. Returns the product's ordinal.
+    private int upsert(ProductFacetRow product) {
+        Integer ordinal = ordinalsById.get(product.getProductId());
+        if (ordinal == null && !freeOrdinals.isEmpty()) {
+            ordinal = freeOrdinals.first();
+            freeOrdinals.remove(ordinal);
+            ordinalsById.put(product.getProductId(), ordinal);
+            idsByOrdinal.set(ordinal, product.getProductId());
+        } else if (ordinal == null) {
+            ordinal = idsByOrdinal.size();
+            ordinalsById.put(product.getProductId(), ordinal);
+            idsByOrdinal.add(product.getProductId());
+            categoriesByOrdinal.add(null);
+            if (ordinal >= pricesByOrdinal.length) {
+                pricesByOrdinal = Arrays.copyOf(pricesByOrdinal, Math.max(16, pricesByOrdinal.length * 2));
+            }
+        } else {
+            clearCategory(ordinal);
+        }
+        String category = product.getCategoryName();
+        categoriesByOrdinal.set(ordinal, category);
+        if (category != null) {
+            categoryBitmaps.computeIfAbsent(category, name -> new RoaringBitmap()).add(ordinal);
+        }
+        pricesByOrdinal[ordinal] = product.getPrice() != null ? product.getPrice().doubleValue() : Double.NaN;
+        live.add(ordinal);
+        return ordinal;
+    }
+
+    // Caller must hold the write lock.
+    private void remove(UUID productId) {
+        Integer ordinal = ordinalsById.remove(productId);
+        if (ordinal != null) {
+            clearCategory(ordinal);
+            categoriesByOrdinal.set(ordinal, null);
+            idsByOrdinal.set(ordinal, null);
+            pricesByOrdinal[ordinal] = Double.NaN;
+            live.remove(ordinal);
+            freeOrdinals.add(ordinal);
+        }
+    }
+
+    private void clearCategory(int ordinal) {
+        String previous = categoriesByOrdinal.get(ordinal);
+        if (previous != null) {
+            RoaringBitmap bitmap = categoryBitmaps.get(previous);
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                categoryBitmaps.remove(previous);
+            }
+        }
+    }
+
+    /**
+     * Drops the touched ordinals from the sorted price arrays and merges their current prices back in.
+     * Caller must hold the write lock.
+     */
+    private void mergePrices(RoaringBitmap touched) {
+        int[] changedOrdinals = touched.stream()
+                .filter(ordinal -> live.contains(ordinal) && !Double.isNaN(pricesByOrdinal[ordinal]))
+                .toArray();
+        double[] changedPrices = pricesOf(changedOrdinals);
+        sortByPrice(changedOrdinals, changedPrices);
+
+        int capacity = sortedOrdinals.length + changedOrdinals.length;
+        int[] ordinals = new int[capacity];
+        double[] prices = new double[capacity];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < sortedOrdinals.length; i++) {
+            if (touched.contains(sortedOrdinals[i])) {
+                continue;
+            }
+            while (next < changedOrdinals.length && changedPrices[next] < sortedPrices[i]) {
+                ordinals[size] = changedOrdinals[next];
+                prices[size++] = changedPrices[next++];
+            }
+            ordinals[size] = sortedOrdinals[i];
+            prices[size++] = sortedPrices[i];
+        }
+        while (next < changedOrdinals.length) {
+            ordinals[size] = changedOrdinals[next];
+            prices[size++] = changedPrices[next++];
+        }
+        sortedOrdinals = Arrays.copyOf(ordinals, size);
+        sortedPrices = Arrays.copyOf(prices, size);
+    }
+
+    private double[] pricesOf(int[] ordinals) {
+        double[] prices = new double[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            prices[i] = pricesByOrdinal[ordinals[i]];
+        }
+        return prices;
+    }
+
+    // Stable merge sort of the index-aligned arrays by price, without boxing.
+    static void sortByPrice(int[] ordinals, double[] prices) {
+        int[] ordinalBuffer = new int[ordinals.length];
+        double[] priceBuffer = new double[prices.length];
+        for (int width = 1; width < ordinals.length; width *= 2) {
+            for (int low = 0; low < ordinals.length - width; low += 2 * width) {
+                int middle = low + width;
+                int high = Math.min(low + 2 * width, ordinals.length);
+                int left = low;
+                int right = middle;
+                for (int i = low; i < high; i++) {
+                    boolean takeLeft = right >= high || (left < middle && prices[left] <= prices[right]);
+                    int from = takeLeft ? left++ : right++;
+                    ordinalBuffer[i] = ordinals[from];
+                    priceBuffer[i] = prices[from];
+                }
+                System.arraycopy(ordinalBuffer, low, ordinals, low, high - low);
+                System.arraycopy(priceBuffer, low, prices, low, high - low);
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.fabrikka.product_service.service.search;
+
+import com.fabrikka.product_service.dto.ProductTextRow;
+import com.fabrikka.product_service.repository.ProductRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded full-text index over product name and description.
+ * <p>
+ * Terms live in a sorted dictionary, so an exact term lookup and a prefix range scan for
+ * typeahead both run against the same structure. Each term points to a postings list of
+ * (document ordinal, term frequency). Name tokens are weighted {@link #NAME_BOOST} times a
+ * description token. Ranking is BM25.
+ * <p>
+ * Updates follow the usual segment approach: a changed product gets a fresh ordinal and its old
+ * ordinal is tombstoned in the live bitmap. Once tombstones exceed a quarter of all ordinals,
+ * the next refresh rebuilds the index from the repository.
+ */
+@Component
+public class ProductTextIndex {
+
+    private static final int NAME_BOOST = 3;
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    Logger logger = LoggerFactory.getLogger(ProductTextIndex.class);
+
+    private final ProductRepository productRepository;
+
+    private final int maxSuggestionScan;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private TreeMap<String, Postings> dictionary = new TreeMap<>();
+
+    private Map<UUID, Integer> ordinalsById = new HashMap<>();
+
+    private List<UUID> idsByOrdinal = new ArrayList<>();
+
+    private int[] docLengths = new int[16];
+
+    private RoaringBitmap live = new RoaringBitmap();
+
+    private long liveLengthSum;
+
+    public ProductTextIndex(ProductRepository productRepository,
+                            @Value("${product.search.max-suggestion-scan:50000}") int maxSuggestionScan) {
+        this.productRepository = productRepository;
+        this.maxSuggestionScan = maxSuggestionScan;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ProductTextRow> products = productRepository.findTextRows();
+        lock.writeLock().lock();
+        try {
+            dictionary = new TreeMap<>();
+            ordinalsById = new HashMap<>(products.size() * 2);
+            idsByOrdinal = new ArrayList<>(products.size());
+            docLengths = new int[Math.max(16, products.size())];
+            live = new RoaringBitmap();
+            liveLengthSum = 0;
+            products.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product text index built with {} products and {} terms", products.size(), dictionary.size());
+    }
+
+    /**
+     * Re-reads the given products and re-indexes them; IDs no longer in the repository are removed.
+     */
+    public void refresh(Collection<UUID> productIds) {
+        boolean needsRebuild;
+        lock.readLock().lock();
+        try {
+            needsRebuild = idsByOrdinal.size() - live.getCardinality() > idsByOrdinal.size() / 4 + 1024;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (needsRebuild) {
+            rebuild();
+            return;
+        }
+        List<ProductTextRow> products = productRepository.findTextRowsByProductIdIn(productIds);
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(this::remove);
+            products.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of the best-matching products for a free-text query, highest BM25 score first.
+     */
+    public List<UUID> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int documentCount = live.getCardinality();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double averageLength = (double) liveLengthSum / documentCount;
+            Map<Integer, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Postings postings = dictionary.get(term);
+                if (postings == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - postings.size + 0.5) / (postings.size + 0.5));
+                for (int i = 0; i < postings.size; i++) {
+                    int ordinal = postings.docs[i];
+                    if (!live.contains(ordinal)) {
+                        continue;
+                    }
+                    int frequency = postings.freqs[i];
+                    double norm = K1 * (1 - B + B * docLengths[ordinal] / averageLength);
+                    scores.merge(ordinal, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                }
+            }
+
+            PriorityQueue<Map.Entry<Integer, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                top.offer(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<UUID> productIds = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                productIds.add(idsByOrdinal.get(top.poll().getKey()));
+            }
+            Collections.reverse(productIds);
+            return productIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Completes the last word of the input from the term dictionary, terms found in the most live products
+     * first. Earlier words are kept as typed, so "blue sh" may yield "blue shirt", "blue shoes". The last word
+     * is used as typed, stop words included, so "the" still completes to "thermal".
+     * <p>
+     * At most {@code product.search.max-suggestion-scan} terms are ranked per call; for a very short prefix on
+     * a huge vocabulary these are the alphabetically first matching terms, not necessarily the most frequent.
+     */
+    public List<String> suggest(String input, int limit) {
+        if (input == null || input.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        String trimmed = input.stripLeading().toLowerCase(Locale.ROOT);
+        // The last word starts after the last character the tokenizer would split on
+        int split = trimmed.length() - 1;
+        while (split >= 0 && Character.isLetterOrDigit(trimmed.charAt(split))) {
+            split--;
+        }
+        String leading = trimmed.substring(0, split + 1);
+        String prefix = trimmed.substring(split + 1);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            boolean hasTombstones = live.getCardinality() < idsByOrdinal.size();
+            PriorityQueue<Map.Entry<String, Integer>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            int scanned = 0;
+            for (Map.Entry<String, Postings> entry
+                    : dictionary.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+                int liveCount = hasTombstones ? entry.getValue().liveCount(live) : entry.getValue().size;
+                // Terms left behind by deleted or re-indexed products stay in the dictionary until the next rebuild
+                if (liveCount > 0) {
+                    top.offer(Map.entry(entry.getKey(), liveCount));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+                // Bound the work for very short prefixes on huge vocabularies
+                if (++scanned >= maxSuggestionScan) {
+                    break;
+                }
+            }
+            List<String> suggestions = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                suggestions.add(leading + top.poll().getKey());
+            }
+            Collections.reverse(suggestions);
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock.
+    private void add(ProductTextRow product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        TextAnalyzer.tokenize(product.getName()).forEach(token -> frequencies.merge(token, NAME_BOOST, Integer::sum));
+        TextAnalyzer.tokenize(product.getDescription()).forEach(token -> frequencies.merge(token, 1, Integer::sum));
+
+        int ordinal = idsByOrdinal.size();
+        idsByOrdinal.add(product.getProductId());
+        ordinalsById.put(product.getProductId(), ordinal);
+        if (ordinal >= docLengths.length) {
+            docLengths = Arrays.copyOf(docLengths, docLengths.length * 2);
+        }
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        docLengths[ordinal] = length;
+        liveLengthSum += length;
+        live.add(ordinal);
+        frequencies.forEach((term, frequency) -> dictionary.computeIfAbsent(term, key -> new Postings()).add(ordinal, frequency));
+    }
+
+    // Caller must hold the write lock.
+    private void remove(UUID productId) {
+        Integer ordinal = ordinalsById.remove(productId);
+        if (ordinal != null && live.contains(ordinal)) {
+            live.remove(ordinal);
+            liveLengthSum -= docLengths[ordinal];
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+
+        private int[] freqs = new int[4];
+
+        private int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+
+        int liveCount(RoaringBitmap live) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (live.contains(docs[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
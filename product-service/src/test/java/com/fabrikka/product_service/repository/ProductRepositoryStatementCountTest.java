@@ -0,0 +1,106 @@
+package com.fabrikka.product_service.repository;
+
+import com.fabrikka.product_service.entity.Category;
+import com.fabrikka.product_service.entity.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards against the 1 + N category selects coming back: loading and mapping a page must cost
+ * the same number of statements however many products are on it.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.cloud.config.enabled=false"
+})
+class ProductRepositoryStatementCountTest {
+
+    // Keeps the slice away from the application class, whose @EnableFeignClients needs the Feign auto-configuration
+    @Configuration
+    @EntityScan(basePackageClasses = Product.class)
+    @EnableJpaRepositories(basePackageClasses = ProductRepository.class)
+    static class JpaConfig {
+    }
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void pageLoadIsOneSelectPlusCountRegardlessOfPageSize() {
+        persistCatalog(12, 40);
+
+        assertThat(statementsForPage(5)).isEqualTo(2);
+        assertThat(statementsForPage(30)).isEqualTo(2);
+    }
+
+    @Test
+    void findAllLoadsCategoriesInTheSameSelect() {
+        persistCatalog(4, 20);
+
+        statistics.clear();
+        List<String> categories = productRepository.findAll().stream()
+                .map(product -> product.getCategory().getName())
+                .collect(Collectors.toList());
+
+        assertThat(categories).hasSize(20).doesNotContainNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private long statementsForPage(int size) {
+        entityManager.clear();
+        statistics.clear();
+        Specification<Product> pricedAboveZero = (root, query, cb) -> cb.greaterThan(root.get("price"), BigDecimal.ZERO);
+        Page<Product> page = productRepository.findAll(pricedAboveZero, PageRequest.of(0, size, Sort.by("name")));
+
+        // Touch every category the way the DTO mapping does
+        assertThat(page.getContent()).hasSize(size)
+                .allSatisfy(product -> assertThat(product.getCategory().getName()).isNotNull());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void persistCatalog(int categories, int products) {
+        List<Category> saved = new ArrayList<>();
+        for (int i = 0; i < categories; i++) {
+            saved.add(entityManager.persist(new Category("Category " + i)));
+        }
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setName(String.format("Product %03d", i));
+            product.setPrice(BigDecimal.valueOf(10 + i));
+            product.setCategory(saved.get(i % categories));
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
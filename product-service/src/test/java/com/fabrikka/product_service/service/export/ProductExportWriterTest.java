@@ -0,0 +1,74 @@
+package com.fabrikka.product_service.service.export;
+
+import com.fabrikka.common.ProductDto;
+import com.fabrikka.product_service.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class ProductExportWriterTest {
+
+    private final ProductService productService = mock(ProductService.class);
+
+    private final ProductExportWriter writer = new ProductExportWriter(productService, new ObjectMapper());
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @Test
+    void writesCompleteArray() throws Exception {
+        streamChunks(false);
+
+        writer.writeJsonArray(out);
+
+        assertThat(body()).startsWith("[").endsWith("]").contains("\"Shirt\"", "\"Jeans\"");
+    }
+
+    @Test
+    void failedArrayIsLeftUnterminated() {
+        streamChunks(true);
+
+        assertThatThrownBy(() -> writer.writeJsonArray(out)).isInstanceOf(IllegalStateException.class);
+        assertThat(body()).startsWith("[").contains("\"Shirt\"").doesNotEndWith("]");
+    }
+
+    @Test
+    void failedNdjsonPropagatesAfterWrittenLines() {
+        streamChunks(true);
+
+        assertThatThrownBy(() -> writer.writeNdjson(out)).isInstanceOf(IllegalStateException.class);
+        assertThat(body().split("\n")).hasSize(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamChunks(boolean failSecondChunk) {
+        doAnswer(invocation -> {
+            Consumer<List<ProductDto>> consumer = invocation.getArgument(0);
+            consumer.accept(List.of(product("Shirt")));
+            if (failSecondChunk) {
+                throw new IllegalStateException("connection reset");
+            }
+            consumer.accept(List.of(product("Jeans")));
+            return null;
+        }).when(productService).streamAllProducts(any());
+    }
+
+    private String body() {
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static ProductDto product(String name) {
+        ProductDto product = new ProductDto();
+        product.setName(name);
+        return product;
+    }
+}
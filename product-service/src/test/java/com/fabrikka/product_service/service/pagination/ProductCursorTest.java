@@ -0,0 +1,66 @@
+package com.fabrikka.product_service.service.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTest {
+
+    @Test
+    void encodeAndDecodeRoundTripTypedKeys() {
+        UUID productId = UUID.randomUUID();
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("price", new BigDecimal("19.90"));
+        keys.put("productId", productId);
+
+        String token = ProductCursor.from("price,desc", ScrollPosition.forward(keys)).encode();
+        ProductCursor cursor = ProductCursor.decode(token);
+
+        assertThat(cursor.getSort()).isEqualTo("price,desc");
+        KeysetScrollPosition position = cursor.toScrollPosition();
+        assertThat(position.getKeys()).containsEntry("price", new BigDecimal("19.90")).containsEntry("productId", productId);
+    }
+
+    @Test
+    void nameKeysSurviveSeparatorCharacters() {
+        UUID productId = UUID.randomUUID();
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("name", "Tee | slim=fit");
+        keys.put("productId", productId);
+
+        ProductCursor cursor = ProductCursor.decode(ProductCursor.from("name,asc", ScrollPosition.forward(keys)).encode());
+
+        assertThat(cursor.toScrollPosition().getKeys()).containsEntry("name", "Tee | slim=fit");
+    }
+
+    @Test
+    void normalizeSortFallsBackToProductIdOrder() {
+        assertThat(ProductCursor.normalizeSort("price,DESC")).isEqualTo("price,desc");
+        assertThat(ProductCursor.normalizeSort("stock,asc")).isEmpty();
+        assertThat(ProductCursor.normalizeSort("price,sideways")).isEmpty();
+        assertThat(ProductCursor.normalizeSort(null)).isEmpty();
+        assertThat(ProductCursor.toSort("")).isEqualTo(Sort.by(Sort.Direction.ASC, "productId"));
+        assertThat(ProductCursor.toSort("name,desc")).isEqualTo(Sort.by(Sort.Direction.DESC, "name", "productId"));
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThatThrownBy(() -> ProductCursor.decode("not base64!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        String withoutTieBreaker = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("name,asc".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> ProductCursor.decode(withoutTieBreaker))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,99 @@
+package com.fabrikka.product_service.service.search;
+
+import com.fabrikka.product_service.dto.ProductFacetRow;
+import com.fabrikka.product_service.dto.ProductFacetsDto;
+import com.fabrikka.product_service.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductFacetIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    private final ProductFacetIndex index = new ProductFacetIndex(productRepository);
+
+    private final UUID shirt = UUID.randomUUID();
+
+    private final UUID jeans = UUID.randomUUID();
+
+    private final UUID jacket = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findFacetRows()).thenReturn(List.of(
+                row(shirt, "Shirts", "20"),
+                row(jeans, "Pants", "50"),
+                row(jacket, "Jackets", "120")));
+        index.rebuild();
+    }
+
+    @Test
+    void filtersByPriceRangeAndCountsCategoriesUnderPriceFilter() {
+        ProductFacetsDto result = index.query(List.of("Shirts", "Pants"), 10.0, 60.0, "price,desc", 10);
+
+        assertThat(result.getProductIds()).containsExactly(jeans, shirt);
+        assertThat(result.getTotalMatches()).isEqualTo(2);
+        assertThat(result.getCategoryCounts()).isEqualTo(Map.of("Pants", 1L, "Shirts", 1L));
+    }
+
+    @Test
+    void priceChangeIsVisibleToTheNextQuery() {
+        refresh(List.of(shirt), row(shirt, "Shirts", "200"));
+
+        assertThat(index.query(null, null, null, "price,asc", 10).getProductIds())
+                .containsExactly(jeans, jacket, shirt);
+        assertThat(index.query(null, 100.0, null, null, 10).getTotalMatches()).isEqualTo(2);
+    }
+
+    @Test
+    void deletedProductLeavesEveryResultAndItsOrdinalIsReused() {
+        refresh(List.of(jeans));
+        UUID boots = UUID.randomUUID();
+        refresh(List.of(boots), row(boots, "Shoes", "5"));
+
+        ProductFacetsDto result = index.query(null, null, null, "price,asc", 10);
+        assertThat(result.getProductIds()).containsExactly(boots, shirt, jacket);
+        assertThat(result.getCategoryCounts()).doesNotContainKey("Pants");
+        assertThat(index.query(List.of("Shoes"), null, null, null, 10).getProductIds()).containsExactly(boots);
+    }
+
+    @Test
+    void unpricedProductsSortLast() {
+        UUID scarf = UUID.randomUUID();
+        refresh(List.of(scarf), new ProductFacetRow(scarf, "Accessories", null));
+
+        assertThat(index.query(null, null, null, "price,desc", 10).getProductIds())
+                .containsExactly(jacket, jeans, shirt, scarf);
+        assertThat(index.query(null, 0.0, 1000.0, null, 10).getProductIds()).doesNotContain(scarf);
+    }
+
+    @Test
+    void sortByPriceKeepsOrdinalsAlignedAndIsStable() {
+        int[] ordinals = {0, 1, 2, 3, 4};
+        double[] prices = {3, 1, 2, 1, 0};
+
+        ProductFacetIndex.sortByPrice(ordinals, prices);
+
+        assertThat(ordinals).containsExactly(4, 1, 3, 2, 0);
+        assertThat(prices).containsExactly(0, 1, 1, 2, 3);
+    }
+
+    private void refresh(List<UUID> productIds, ProductFacetRow... rows) {
+        when(productRepository.findFacetRowsByProductIdIn(anyCollection())).thenReturn(List.of(rows));
+        index.refresh(productIds);
+    }
+
+    private static ProductFacetRow row(UUID productId, String category, String price) {
+        return new ProductFacetRow(productId, category, new BigDecimal(price));
+    }
+}
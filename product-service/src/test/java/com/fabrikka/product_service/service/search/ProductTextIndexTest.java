@@ -0,0 +1,94 @@
+package com.fabrikka.product_service.service.search;
+
+import com.fabrikka.product_service.dto.ProductTextRow;
+import com.fabrikka.product_service.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductTextIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    private final ProductTextIndex index = new ProductTextIndex(productRepository, 50000);
+
+    private final UUID blueShirt = UUID.randomUUID();
+
+    private final UUID redShoes = UUID.randomUUID();
+
+    private final UUID shirtDress = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findTextRows()).thenReturn(List.of(
+                new ProductTextRow(blueShirt, "Blue Shirt", "Cotton shirt with a button-down collar"),
+                new ProductTextRow(redShoes, "Red Shoes", "Leather shoes, pairs well with a blue shirt"),
+                new ProductTextRow(shirtDress, "Shirt Dress", "Linen dress")));
+        index.rebuild();
+    }
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        assertThat(index.search("blue shirt", 10)).first().isEqualTo(blueShirt);
+        assertThat(index.search("blue shirt", 10)).containsExactlyInAnyOrder(blueShirt, redShoes, shirtDress);
+        assertThat(index.search("shoes", 10)).containsExactly(redShoes);
+        assertThat(index.search("blue shirt", 1)).containsExactly(blueShirt);
+    }
+
+    @Test
+    void unknownOrStopWordQueriesMatchNothing() {
+        assertThat(index.search("sandals", 10)).isEmpty();
+        assertThat(index.search("the of", 10)).isEmpty();
+    }
+
+    @Test
+    void refreshReindexesChangedProductsAndDropsDeletedOnes() {
+        when(productRepository.findTextRowsByProductIdIn(anyCollection()))
+                .thenReturn(List.of(new ProductTextRow(redShoes, "Red Sandals", "Summer sandals")));
+
+        index.refresh(List.of(redShoes, shirtDress));
+
+        assertThat(index.search("sandals", 10)).containsExactly(redShoes);
+        assertThat(index.search("shoes", 10)).isEmpty();
+        assertThat(index.search("dress", 10)).isEmpty();
+    }
+
+    @Test
+    void suggestCompletesTheLastWordMostFrequentFirst() {
+        assertThat(index.suggest("sh", 2)).containsExactly("shirt", "shoes");
+        assertThat(index.suggest("blue sh", 1)).containsExactly("blue shirt");
+        assertThat(index.suggest("  ", 5)).isEmpty();
+    }
+
+    @Test
+    void suggestCompletesStopWordPrefixes() {
+        UUID thermalTop = UUID.randomUUID();
+        when(productRepository.findTextRowsByProductIdIn(anyCollection()))
+                .thenReturn(List.of(new ProductTextRow(thermalTop, "Thermal Top", "Fleece lined")));
+
+        index.refresh(List.of(thermalTop));
+
+        assertThat(index.suggest("the", 5)).containsExactly("thermal");
+        assertThat(index.suggest("blue to", 5)).containsExactly("blue top");
+        assertThat(index.suggest("button-do", 5)).containsExactly("button-down");
+    }
+
+    @Test
+    void suggestSkipsTermsLeftOnlyInDeletedOrEditedProducts() {
+        when(productRepository.findTextRowsByProductIdIn(anyCollection()))
+                .thenReturn(List.of(new ProductTextRow(redShoes, "Red Sandals", "Summer sandals")));
+
+        index.refresh(List.of(redShoes, shirtDress));
+
+        assertThat(index.suggest("sh", 5)).containsExactly("shirt");
+        assertThat(index.suggest("dre", 5)).isEmpty();
+        assertThat(index.suggest("sa", 5)).containsExactly("sandals");
+    }
+}
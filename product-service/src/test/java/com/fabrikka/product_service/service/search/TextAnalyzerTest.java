@@ -0,0 +1,26 @@
+package com.fabrikka.product_service.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextAnalyzerTest {
+
+    @Test
+    void lowerCasesSplitsOnPunctuationAndDropsStopWords() {
+        assertThat(TextAnalyzer.tokenize("The Slim-Fit T-Shirt, in Navy & White"))
+                .containsExactly("slim", "fit", "t", "shirt", "navy", "white");
+    }
+
+    @Test
+    void keepsDigitsAndNonAsciiLetters() {
+        assertThat(TextAnalyzer.tokenize("Size 42 Café")).containsExactly("size", "42", "café");
+    }
+
+    @Test
+    void emptyInputHasNoTokens() {
+        assertThat(TextAnalyzer.tokenize(null)).isEmpty();
+        assertThat(TextAnalyzer.tokenize("")).isEmpty();
+        assertThat(TextAnalyzer.tokenize(" - of the - ")).isEmpty();
+    }
+}
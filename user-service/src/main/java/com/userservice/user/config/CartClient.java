@@ -18,6 +18,9 @@ public interface CartClient {
     @GetMapping("/carts/{userId}")
     ResponseEntity<CartDto> getCart(@PathVariable Long userId);
 
+    @GetMapping("/carts/{userId}/hydrated")
+    ResponseEntity<CartDto> getHydratedCart(@PathVariable Long userId);
+
     @PutMapping("/carts/{userId}/update")
     ResponseEntity<CartDto> updateItemQuantity(@PathVariable Long userId, @RequestBody UpdateItemRequest request);
 
@@ -1,6 +1,8 @@
 package com.userservice.user.config;
 
 import com.fabrikka.common.InventoryDto;
+import com.userservice.user.dto.ReservationDto;
+import com.userservice.user.dto.ReservationRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,5 +21,14 @@ public interface InventoryClient {
      @PutMapping("/inventory/{productId}")
      ResponseEntity<String> updateInventory(@PathVariable UUID productId, @RequestParam Integer quantity);
 
+     @PostMapping("/inventory/reservations")
+     ResponseEntity<ReservationDto> placeReservation(@RequestBody ReservationRequest request);
+
+     @PostMapping("/inventory/reservations/{reservationId}/commit")
+     ResponseEntity<ReservationDto> commitReservation(@PathVariable UUID reservationId);
+
+     @PostMapping("/inventory/reservations/{reservationId}/release")
+     ResponseEntity<ReservationDto> releaseReservation(@PathVariable UUID reservationId);
+
 
 }
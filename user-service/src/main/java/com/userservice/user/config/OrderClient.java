@@ -17,6 +17,9 @@ public interface OrderClient {
     @GetMapping("/orders/user/{userId}")
     public ResponseEntity<List<OrderResponse>> getUserOrders(@PathVariable Long userId);
 
+    @PutMapping("/orders/{orderId}/cancel")
+    public ResponseEntity<OrderResponse> cancelOrder(@PathVariable Long orderId);
+
     @DeleteMapping("/orders/remove/{userId}")
     public ResponseEntity<String> removeOrder(@PathVariable Long userId);
 }
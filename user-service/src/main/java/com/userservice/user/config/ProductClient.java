@@ -2,6 +2,7 @@ package com.userservice.user.config;
 
 import com.fabrikka.common.CategoryDto;
 import com.fabrikka.common.ProductDto;
+import com.userservice.user.dto.ProductSliceDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
@@ -41,4 +42,13 @@ public interface ProductClient {
             @RequestParam(value = "maxPrice", required = false) Double maxPrice,
             @RequestParam(value = "sort", required = false) String sort);
 
+    @GetMapping("/products/search/scroll")
+    ResponseEntity<ProductSliceDto> getProductsScroll(
+            @RequestParam("size") int size,
+            @RequestParam(value = "categories", required = false) List<String> categories,
+            @RequestParam(value = "minPrice", required = false) Double minPrice,
+            @RequestParam(value = "maxPrice", required = false) Double maxPrice,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "cursor", required = false) String cursor);
+
 }
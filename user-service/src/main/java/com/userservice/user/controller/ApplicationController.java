@@ -2,15 +2,23 @@ package com.userservice.user.controller;
 
 import com.fabrikka.common.*;
 import com.userservice.user.config.CartClient;
+import com.userservice.user.config.InventoryClient;
 import com.userservice.user.config.NotificationClient;
 import com.userservice.user.config.OrderClient;
 import com.userservice.user.config.ProductClient;
+import com.userservice.user.dto.ProductSliceDto;
+import com.userservice.user.dto.ReservationDto;
+import com.userservice.user.dto.ReservationLineDto;
+import com.userservice.user.dto.ReservationRequest;
 import com.userservice.user.entity.User;
 import com.userservice.user.service.userService;
+import feign.FeignException;
+import feign.RetryableException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
@@ -22,7 +30,6 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -37,13 +44,22 @@ public class ApplicationController {
 
     Logger logger = LoggerFactory.getLogger(ApplicationController.class);
 
+    private static final int PAGE_LINK_WINDOW = 5;
+
     private final userService userService;
     private final CartClient cartClient;
     private final ProductClient productClient;
     private final NotificationClient notificationClient;
     private final OrderClient orderClient;
+    private final InventoryClient inventoryClient;
     private final StreamBridge streamBridge;
 
+    @Value("${inventory.reservation.commit-attempts:3}")
+    private int reservationCommitAttempts;
+
+    @Value("${inventory.reservation.commit-backoff-ms:200}")
+    private long reservationCommitBackoffMillis;
+
     @GetMapping("index")
     public String home(Model model) {
         List<ProductDto> products = productClient.getAllProducts().getBody();
@@ -58,7 +74,9 @@ public class ApplicationController {
                        @RequestParam(value = "categories", required = false) Optional<List<String>> categories,
                        @RequestParam(value = "minPrice", required = false) Optional<Double> minPrice,
                        @RequestParam(value = "maxPrice", required = false) Optional<Double> maxPrice,
-                       @RequestParam(value = "sort", required = false) Optional<String> sort) {
+                       @RequestParam(value = "sort", required = false) Optional<String> sort,
+                       @RequestParam(value = "mode", required = false) Optional<String> mode,
+                       @RequestParam(value = "cursor", required = false) Optional<String> cursor) {
         // Define the current page and page size. Default to page 0 and size 9.
         int currentPage = page.orElse(1);
         int pageSize = size.orElse(9);
@@ -67,6 +85,23 @@ public class ApplicationController {
         Double currentMaxPrice = maxPrice.orElse(null);
         String sortOrder = sort.orElse(null);
 
+        // Scroll mode seeks by cursor instead of page offset, so deep pages cost the same as the first
+        // and no total count is computed.
+        if ("scroll".equals(mode.orElse(null))) {
+            ProductSliceDto productSlice = productClient.getProductsScroll(
+                    pageSize,
+                    currentCategories,
+                    currentMinPrice,
+                    currentMaxPrice,
+                    sortOrder,
+                    cursor.orElse(null)).getBody();
+            model.addAttribute("productSlice", productSlice);
+            model.addAttribute("products", productSlice != null ? productSlice.getContent() : Collections.emptyList());
+            model.addAttribute("categories", productClient.getAllCategory().getBody());
+            model.addAttribute("currentCategories", currentCategories);
+            return "shop";
+        }
+
         // Fetch the paginated data from your product service.
         // This now passes all filter and sort parameters to the product service.
         Page<ProductDto> productPage = productClient.getProductsPaginated(
@@ -78,11 +113,13 @@ public class ApplicationController {
                 sortOrder).getBody();
 
         model.addAttribute("productPage", productPage);
+        model.addAttribute("products", productPage.getContent());
 
-        // Generate page numbers for the pagination control
+        // Generate page numbers for the pagination control, limited to a window around the current page
         int totalPages = productPage.getTotalPages();
         if (totalPages > 0) {
-            List<Integer> pageNumbers = IntStream.rangeClosed(1, totalPages)
+            List<Integer> pageNumbers = IntStream.rangeClosed(Math.max(1, currentPage - PAGE_LINK_WINDOW),
+                            Math.min(totalPages, currentPage + PAGE_LINK_WINDOW))
                     .boxed()
                     .collect(Collectors.toList());
             model.addAttribute("pageNumbers", pageNumbers);
@@ -160,8 +197,7 @@ public class ApplicationController {
 
         try {
             CartDto cartDto = fetchCart(userId);
-            populateCartItemsWithProductDetails(cartDto);
-            logger.warn("CartDto: {}", cartDto);
+            logger.debug("CartDto: {}", cartDto);
             model.addAttribute("cart", cartDto);
 
         } catch (Exception e) {
@@ -172,24 +208,14 @@ public class ApplicationController {
     }
 
     private CartDto fetchCart(Long userId) {
-        ResponseEntity<CartDto> response = cartClient.getCart(userId);
+        // Product details and the total come back resolved in one call
+        ResponseEntity<CartDto> response = cartClient.getHydratedCart(userId);
         if (response != null && response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
             return response.getBody();
         }
         return new CartDto();
     }
 
-    private void populateCartItemsWithProductDetails(CartDto cartDto) {
-        BigDecimal totalPrice = BigDecimal.ZERO;
-        for (CartItemDto itemDto : cartDto.getItems()) {
-            ResponseEntity<ProductDto> productResponse = productClient.getProductById(itemDto.getProductId());
-            logger.warn("ProductDto: {}", productResponse.getBody());
-            itemDto.setProduct(productResponse.getBody());
-            totalPrice = totalPrice.add(itemDto.getProduct().getPrice());
-        }
-        cartDto.setTotalPrice(totalPrice);
-    }
-
     @PostMapping("/cart/add")
     public String addToCart(@ModelAttribute("productId") UUID productId, @ModelAttribute("quantity") int quantity) {
         User cachedUser = (User) getCachedUser("user");
@@ -231,9 +257,17 @@ public class ApplicationController {
     @PostMapping("/order")
     public String placeOrder() {
         User user = (User)getCachedUser("user");
-        ResponseEntity<CartDto> cartDtos = cartClient.getCart(user.getId());
-        populateCartItemsWithProductDetails(cartDtos.getBody());
+        ResponseEntity<CartDto> cartDtos = cartClient.getHydratedCart(user.getId());
         List<CartItemDto> items = cartDtos.getBody().getItems();
+        if (items == null || items.isEmpty()) {
+            // Nothing to reserve or order; the cart page shows the empty cart
+            return "redirect:/cart";
+        }
+        // Lines whose product was deleted or lost its price come back without one; order all of the cart or nothing
+        if (items.stream().anyMatch(item -> item.getProduct() == null || item.getProduct().getPrice() == null)) {
+            logger.warn("Checkout rejected for user {}: cart has unavailable products", user.getId());
+            return "redirect:/cart?unavailable";
+        }
         CreateOrderRequest orderItem = new CreateOrderRequest();
         List<CreateOrderRequest.OrderItemRequest> orderItemRequestList = new ArrayList<>();
         orderItem.setUserId(user.getId());
@@ -247,11 +281,78 @@ public class ApplicationController {
         }
         orderItem.setItems(orderItemRequestList);
 
-        ResponseEntity<OrderResponse> orderResponse = orderClient.createOrder(orderItem);
+        // Hold the stock first; the hold expires on its own if this request dies before committing or releasing it
+        List<ReservationLineDto> reservationLines = items.stream()
+                .map(item -> new ReservationLineDto(item.getProductId(), item.getQuantity()))
+                .collect(Collectors.toList());
+        ReservationDto reservation;
+        try {
+            reservation = inventoryClient.placeReservation(new ReservationRequest(reservationLines, null)).getBody();
+        } catch (FeignException.Conflict e) {
+            logger.warn("Checkout rejected for user {}: {}", user.getId(), e.contentUTF8());
+            return "redirect:/cart?outOfStock";
+        }
+
+        OrderResponse order;
+        try {
+            order = orderClient.createOrder(orderItem).getBody();
+        } catch (RuntimeException e) {
+            releaseReservation(reservation.getReservationId(), e);
+            throw e;
+        }
+        try {
+            commitReservation(reservation.getReservationId());
+        } catch (RuntimeException e) {
+            // Without a committed hold the sweeper returns the stock, so the order must not stand
+            logger.error("Could not commit reservation {} for order {}, cancelling the order, exception:{} ",
+                    reservation.getReservationId(), order.getOrderId(), e.getMessage());
+            try {
+                orderClient.cancelOrder(order.getOrderId());
+            } catch (RuntimeException cancelFailure) {
+                e.addSuppressed(cancelFailure);
+            }
+            releaseReservation(reservation.getReservationId(), e);
+            throw e;
+        }
 
         return "redirect:/order";
     }
 
+    /**
+     * Commits the hold, retrying connection failures and 5xx responses. Committing is idempotent by
+     * reservation id, so a retry after a lost response is safe. A 409 means the hold already expired
+     * or was released and is not retried.
+     */
+    private void commitReservation(UUID reservationId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                inventoryClient.commitReservation(reservationId);
+                return;
+            } catch (FeignException e) {
+                boolean retryable = e instanceof RetryableException || e.status() >= 500;
+                if (!retryable || attempt >= reservationCommitAttempts) {
+                    throw e;
+                }
+                logger.warn("Retrying commit of reservation {} after attempt {}, exception:{} ", reservationId, attempt, e.getMessage());
+                try {
+                    Thread.sleep(reservationCommitBackoffMillis * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // A release that fails must not hide the failure that caused it; the hold then simply expires
+    private void releaseReservation(UUID reservationId, RuntimeException cause) {
+        try {
+            inventoryClient.releaseReservation(reservationId);
+        } catch (RuntimeException releaseFailure) {
+            cause.addSuppressed(releaseFailure);
+        }
+    }
+
     private Map<String, String> createReceiversMap(List<User> users) {
         Map<String, String> receiversMap = new HashMap<>();
         if (users != null) {
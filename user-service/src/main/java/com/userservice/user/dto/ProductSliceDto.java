@@ -0,0 +1,29 @@
+package com.userservice.user.dto;
+
+import com.fabrikka.common.ProductDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One window of products from product-service's keyset search. There is no total count;
+ * {@code nextCursor} is passed back to fetch the following window.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ProductSliceDto {
+
+    private List<ProductDto> content = new ArrayList<>();
+
+    private int size;
+
+    private boolean hasNext;
+
+    private String nextCursor;
+}
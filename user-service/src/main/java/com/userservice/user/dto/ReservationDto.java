@@ -0,0 +1,25 @@
+package com.userservice.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ReservationDto {
+
+    private UUID reservationId;
+
+    private String status;
+
+    private Instant expiresAt;
+
+    private List<ReservationLineDto> items;
+}
@@ -0,0 +1,20 @@
+package com.userservice.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class ReservationRequest {
+
+    private List<ReservationLineDto> items;
+
+    // Optional; the service default applies when absent
+    private Long ttlSeconds;
+}